@@ -0,0 +1,92 @@
+package com.productrestapi.evaluation.benchmarks;
+
+import com.productrestapi.evaluation.EvaluationApplication;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.repositories.ProductRepository;
+import com.productrestapi.evaluation.services.PriceIndex;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Starts the application against its own in-memory H2 database and seeds the catalogue.
+ */
+public class BenchmarkApplication {
+
+    private static final int SEED_CHUNK = 500;
+
+    public static ConfigurableApplicationContext start(String databaseName, String... properties) {
+        List<String> all = new ArrayList<>();
+        all.add("--server.port=0");
+        all.add("--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1");
+        all.add("--spring.h2.console.enabled=false");
+        all.add("--spring.cache.type=none");
+        all.add("--logging.level.root=WARN");
+        for (String property : properties) {
+            all.add("--" + property);
+        }
+        // passed as arguments rather than default properties so they win over application.yml
+        return new SpringApplicationBuilder(EvaluationApplication.class)
+                .profiles("dev")
+                .run(all.toArray(new String[0]));
+    }
+
+    /**
+     * Let benchmark threads call secured service methods directly, outside of any HTTP request.
+     * Not for benchmarks going through HTTP: the context is shared by every thread.
+     */
+    public static void authenticate() {
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("benchmark", null,
+                AuthorityUtils.createAuthorityList("ROLE_PRODUCT_PRICING", "ROLE_PRODUCT_CREATORS", "ROLE_PRODUCT_MANAGERS")));
+    }
+
+    /**
+     * Insert {@code products} products with {@code pricesPerProduct} prices each.
+     * @return the ids of the products.
+     */
+    public static long[] seed(ConfigurableApplicationContext context, int products, int pricesPerProduct) {
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        long[] ids = new long[products];
+        int seeded = 0;
+        while (seeded < products) {
+            List<Product> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = 0; i < SEED_CHUNK && seeded + i < products; i++) {
+                chunk.add(product(seeded + i, pricesPerProduct));
+            }
+            for (Product product : productRepository.saveAll(chunk)) {
+                ids[seeded++] = product.getId();
+            }
+        }
+        // the rows were written behind the services, load them into the index
+        context.getBean(PriceIndex.class).rebuild();
+        return ids;
+    }
+
+    public static Product product(int index, int pricesPerProduct) {
+        Instant now = Instant.now();
+        Product product = new Product()
+                .setDescription("Benchmark product " + index)
+                .setStatus("A")
+                .setCreationDate(now)
+                .setModificationDate(now);
+        Set<Price> prices = new HashSet<>();
+        for (int i = 0; i < pricesPerProduct; i++) {
+            prices.add(new Price()
+                    .setProduct(product)
+                    .setPrice(1 + index % 100 + i / 100.0)
+                    .setStatus("A")
+                    .setCreationDate(now));
+        }
+        return product.setPrices(prices);
+    }
+}
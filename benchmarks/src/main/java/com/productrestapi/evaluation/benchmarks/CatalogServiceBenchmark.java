@@ -0,0 +1,47 @@
+package com.productrestapi.evaluation.benchmarks;
+
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.PriceRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service and repository hot paths, with the cache disabled so every call reaches the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogServiceBenchmark {
+
+    @Benchmark
+    public List<Product> getAllProducts(CatalogueState state) {
+        return state.productService.getAllProducts(
+                PageRequest.of(state.randomPage(), CatalogueState.PAGE_SIZE, Sort.by("id").ascending()));
+    }
+
+    @Benchmark
+    public Product getProduct(CatalogueState state) {
+        return state.productService.getProduct(state.randomProductId());
+    }
+
+    @Benchmark
+    public Price createPrice(CatalogueState state) {
+        return state.priceService.createPrice(new PriceRequest()
+                .setProductId(state.randomProductId())
+                .setPrice(9.99)
+                .setStatus("A"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.productrestapi.evaluation.benchmarks;
+
+import com.productrestapi.evaluation.services.PriceIndex;
+import com.productrestapi.evaluation.services.PriceService;
+import com.productrestapi.evaluation.services.ProductService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The application started against a seeded H2 catalogue of {@code catalogueSize} products.
+ */
+@State(Scope.Benchmark)
+public class CatalogueState {
+
+    public static final int PAGE_SIZE = 15;
+    public static final int PRICES_PER_PRODUCT = 3;
+
+    @Param({"100", "1000", "10000"})
+    public int catalogueSize;
+
+    ConfigurableApplicationContext context;
+    ProductService productService;
+    PriceService priceService;
+    PriceIndex priceIndex;
+    long[] productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = BenchmarkApplication.start("catalogue-" + this.catalogueSize);
+        BenchmarkApplication.authenticate();
+        this.productIds = BenchmarkApplication.seed(this.context, this.catalogueSize, PRICES_PER_PRODUCT);
+        this.productService = this.context.getBean(ProductService.class);
+        this.priceService = this.context.getBean(PriceService.class);
+        this.priceIndex = this.context.getBean(PriceIndex.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    long randomProductId() {
+        return this.productIds[ThreadLocalRandom.current().nextInt(this.productIds.length)];
+    }
+
+    int randomPage() {
+        return ThreadLocalRandom.current().nextInt(Math.max(1, this.catalogueSize / PAGE_SIZE));
+    }
+}
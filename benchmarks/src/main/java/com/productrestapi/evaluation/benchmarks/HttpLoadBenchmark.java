@@ -0,0 +1,117 @@
+package com.productrestapi.evaluation.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Burst load over HTTP with more concurrent clients than Tomcat threads, in the blocking and in the
+ * async handler mode ({@code evaluation.async.enabled}). Requests rejected with 503 still count as
+ * operations; compare the throughput together with the share of 503 answers printed at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(64)
+public class HttpLoadBenchmark {
+
+    private static final int TOMCAT_THREADS = 16;
+    private static final int PRODUCTS = 1000;
+
+    @Param({"false", "true"})
+    public boolean async;
+
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private String authorization;
+    private final LongAdder unavailable = new LongAdder();
+    private final LongAdder total = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.context = BenchmarkApplication.start("load-" + this.async,
+                "evaluation.async.enabled=" + this.async,
+                // only the handler mode sheds load here
+                "evaluation.admission.enabled=false",
+                "server.tomcat.max-threads=" + TOMCAT_THREADS);
+        BenchmarkApplication.seed(this.context, PRODUCTS, CatalogueState.PRICES_PER_PRODUCT);
+        this.baseUrl = "http://localhost:" + this.context.getEnvironment().getProperty("local.server.port");
+        this.authorization = "Bearer " + this.accessToken();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n503 answers: %d of %d%n", this.unavailable.sum(), this.total.sum());
+        this.context.close();
+    }
+
+    @Benchmark
+    public int getProductPage() throws IOException {
+        int page = ThreadLocalRandom.current().nextInt(PRODUCTS / CatalogueState.PAGE_SIZE);
+        return this.get("/api/v1/product?size=" + CatalogueState.PAGE_SIZE + "&index=" + page);
+    }
+
+    private int get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(this.baseUrl + path).openConnection();
+        connection.setRequestProperty("Authorization", this.authorization);
+        int status = connection.getResponseCode();
+        InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (body != null) {
+            try (InputStream in = body) {
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) >= 0) {
+                    // drain so the connection can be reused
+                }
+            }
+        }
+        this.total.increment();
+        if (status == 503) {
+            this.unavailable.increment();
+        }
+        return status;
+    }
+
+    private String accessToken() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(this.baseUrl + "/oauth/token").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        String client = Base64.getEncoder().encodeToString("bravo_client:bravo_secret".getBytes(StandardCharsets.UTF_8));
+        connection.setRequestProperty("Authorization", "Basic " + client);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write("grant_type=password&username=george&password=george".getBytes(StandardCharsets.UTF_8));
+        }
+        try (InputStream in = connection.getInputStream()) {
+            Map<?, ?> token = new ObjectMapper().readValue(in, Map.class);
+            return (String) token.get("access_token");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.productrestapi.evaluation.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.productrestapi.evaluation.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of {@link Product} graphs, configured like the application's object mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int pricesPerProduct;
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private List<Product> page;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        this.page = new ArrayList<>();
+        for (int i = 0; i < CatalogueState.PAGE_SIZE; i++) {
+            this.page.add(BenchmarkApplication.product(i, this.pricesPerProduct).setId(i + 1));
+        }
+        this.product = this.page.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws Exception {
+        return this.objectMapper.writeValueAsBytes(this.product);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return this.objectMapper.writeValueAsBytes(this.page);
+    }
+}
@@ -0,0 +1,99 @@
+package com.productrestapi.evaluation.benchmarks;
+
+import com.productrestapi.evaluation.security.MethodSecurityConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@code @PreAuthorize} checks of the service writes, evaluated as expressions or precomputed
+ * ({@code evaluation.security.method-security}), against an unsecured call through the same proxy. The
+ * caller keeps one authentication, as the token store does for a token.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MethodSecurityBenchmark {
+
+    @Param({"expression", "precomputed"})
+    public String mode;
+
+    private AnnotationConfigApplicationContext context;
+    private Target target;
+    private long value;
+
+    @Setup
+    public void setUp() {
+        // a plain context gets no logging configuration, keep the interceptor's debug output out of the numbers
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+        this.context = new AnnotationConfigApplicationContext();
+        this.context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Collections.singletonMap("evaluation.security.method-security", this.mode)));
+        this.context.register(MethodSecurityConfig.class, Target.class);
+        this.context.refresh();
+        this.target = this.context.getBean(Target.class);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("roque", null,
+                AuthorityUtils.createAuthorityList("ROLE_PRODUCT_PRICING")));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        this.context.close();
+    }
+
+    @Benchmark
+    public long unsecured() {
+        return this.target.unsecured(this.value++);
+    }
+
+    @Benchmark
+    public long hasAuthority() {
+        return this.target.pricing(this.value++);
+    }
+
+    @Benchmark
+    public long hasAnyAuthority() {
+        return this.target.creatorsOrManagersOrPricing(this.value++);
+    }
+
+    public static class Target {
+
+        public long unsecured(long value) {
+            return value + 1;
+        }
+
+        @PreAuthorize("hasAuthority('ROLE_PRODUCT_PRICING')")
+        public long pricing(long value) {
+            return value + 1;
+        }
+
+        @PreAuthorize("hasAnyAuthority('ROLE_PRODUCT_CREATORS', 'ROLE_PRODUCT_MANAGERS', 'ROLE_PRODUCT_PRICING')")
+        public long creatorsOrManagersOrPricing(long value) {
+            return value + 1;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.productrestapi.evaluation.benchmarks;
+
+import com.productrestapi.evaluation.model.response.CurrentPrice;
+import com.productrestapi.evaluation.services.PriceIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing lookups served by the in-memory {@link PriceIndex}, to compare with
+ * {@link CatalogServiceBenchmark#getProduct} which goes through Hibernate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceIndexBenchmark {
+
+    @Benchmark
+    public CurrentPrice getCurrentPrice(CatalogueState state) {
+        return state.priceIndex.getCurrentPrice(state.randomProductId());
+    }
+
+    /**
+     * Seeded amounts spread over 1..101, so a range of 1 matches about 1% of the catalogue.
+     */
+    @Benchmark
+    public long[] getProductIdsPricedBetween(CatalogueState state) {
+        double min = 1 + ThreadLocalRandom.current().nextInt(100);
+        return state.priceIndex.getProductIdsPricedBetween(min, min + 1, PriceIndex.ACTIVE);
+    }
+}
@@ -0,0 +1,68 @@
+package com.productrestapi.evaluation.benchmarks;
+
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.services.PriceIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a committed price write to the {@link PriceIndex} as the catalogue grows, without the database: a
+ * write should stay in the microseconds from ten thousand to a million prices.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceIndexWriteBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Prices {
+
+        @Param({"10000", "100000", "1000000"})
+        public int catalogueSize;
+
+        PriceIndex priceIndex;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // written outside a transaction, so applied at once; rebuild() would need the repository
+            this.priceIndex = new PriceIndex(null, null, true);
+            for (long id = 1; id <= this.catalogueSize; id++) {
+                this.priceIndex.put(randomPrice(id, this.catalogueSize));
+            }
+        }
+    }
+
+    /**
+     * Update an existing price to a new amount, which moves it to another chunk.
+     */
+    @Benchmark
+    public void updatePrice(Prices prices) {
+        long id = 1 + ThreadLocalRandom.current().nextInt(prices.catalogueSize);
+        prices.priceIndex.put(randomPrice(id, prices.catalogueSize));
+    }
+
+    private static Price randomPrice(long id, int catalogueSize) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Price()
+                .setId(id)
+                .setProduct(new Product().setId(1 + random.nextInt(catalogueSize / CatalogueState.PRICES_PER_PRODUCT)))
+                .setPrice(1 + random.nextInt(10_000) / 100.0)
+                .setStatus(PriceIndex.ACTIVE);
+    }
+}
@@ -0,0 +1,75 @@
+package com.productrestapi.evaluation.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.productrestapi.evaluation.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A product page written in each format a client can ask for: JSON or Smile, gzipped or not. The payload
+ * sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "json-gzip", "smile", "smile-gzip"})
+    public String format;
+
+    @Param({"1", "10"})
+    public int pricesPerProduct;
+
+    private ObjectMapper objectMapper;
+    private boolean gzip;
+    private List<Product> page;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (this.format.startsWith("smile")) {
+            builder.factory(new SmileFactory());
+        }
+        this.objectMapper = builder.build();
+        this.gzip = this.format.endsWith("-gzip");
+        this.page = new ArrayList<>();
+        for (int i = 0; i < CatalogueState.PAGE_SIZE; i++) {
+            this.page.add(BenchmarkApplication.product(i, this.pricesPerProduct).setId(i + 1));
+        }
+        System.out.printf("%n%s page, %d prices per product: %d bytes%n",
+                this.format, this.pricesPerProduct, this.writePage().length);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = this.gzip ? new GZIPOutputStream(bytes) : bytes) {
+            this.objectMapper.writeValue(out, this.page);
+        }
+        return bytes.toByteArray();
+    }
+}
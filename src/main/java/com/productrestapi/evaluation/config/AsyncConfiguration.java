@@ -0,0 +1,83 @@
+package com.productrestapi.evaluation.config;
+
+import com.productrestapi.evaluation.services.CatalogCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Execution mode of the REST handlers. With {@code evaluation.async.enabled} the handlers run on a
+ * bounded pool and the servlet thread goes back to Tomcat while the database works; a full pool answers
+ * 503. Without it they run on the servlet thread as before.
+ */
+@Configuration
+public class AsyncConfiguration {
+
+    @Bean
+    public RequestExecutor requestExecutor(@Value("${evaluation.async.enabled:false}") boolean enabled,
+                                           @Value("${evaluation.async.core-pool-size:10}") int corePoolSize,
+                                           @Value("${evaluation.async.max-pool-size:10}") int maxPoolSize,
+                                           @Value("${evaluation.async.queue-capacity:200}") int queueCapacity,
+                                           MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return RequestExecutor.inline();
+        }
+        RequestExecutor executor = RequestExecutor.bounded(corePoolSize, maxPoolSize, queueCapacity);
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "request", Tags.empty())
+                .bindTo(meterRegistry);
+        return executor;
+    }
+
+    @Bean
+    public RequestCoalescer requestCoalescer(RequestExecutor requestExecutor, HttpMessageConverters messageConverters,
+                                             MeterRegistry meterRegistry, CatalogCache catalogCache,
+                                             @Value("${evaluation.coalescing.enabled:true}") boolean enabled,
+                                             @Value("${evaluation.response-cache.enabled:false}") boolean cacheEnabled,
+                                             @Value("${evaluation.response-cache.spec:maximumWeight=67108864,expireAfterWrite=5m}") String cacheSpec) {
+        ResponseCache responseCache = cacheEnabled ? ResponseCache.of(cacheSpec, meterRegistry) : ResponseCache.disabled();
+        return new RequestCoalescer(requestExecutor, messageConverters, meterRegistry, catalogCache::getGeneration,
+                responseCache, enabled);
+    }
+
+    /**
+     * Let handlers choose the async timeout of their own request, see {@link AsyncTimeout}.
+     */
+    @Bean
+    public WebMvcConfigurer asyncTimeoutConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.registerCallableInterceptors(new AsyncTimeout());
+            }
+        };
+    }
+
+    /**
+     * Put {@link CompletedFutureReturnValueHandler} in front of the default handlers, which would
+     * otherwise take every {@code CompletableFuture} through an async dispatch.
+     */
+    @Bean
+    public SmartInitializingSingleton completedFutureReturnValueHandlerRegistrar(RequestMappingHandlerAdapter adapter) {
+        return () -> {
+            HandlerMethodReturnValueHandlerComposite defaults = new HandlerMethodReturnValueHandlerComposite()
+                    .addHandlers(adapter.getReturnValueHandlers());
+            List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>();
+            handlers.add(new CompletedFutureReturnValueHandler(defaults));
+            handlers.addAll(adapter.getReturnValueHandlers());
+            adapter.setReturnValueHandlers(handlers);
+        };
+    }
+}
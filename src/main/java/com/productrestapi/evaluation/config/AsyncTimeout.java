@@ -0,0 +1,32 @@
+package com.productrestapi.evaluation.config;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Async timeout set by a handler for its own request. A {@code StreamingResponseBody} runs with the
+ * default {@code spring.mvc.async.request-timeout}; a handler that needs longer, like the catalogue export,
+ * calls {@link #set} and the timeout is applied when its async processing starts.
+ */
+public class AsyncTimeout implements CallableProcessingInterceptor {
+
+    private static final String ATTRIBUTE = AsyncTimeout.class.getName();
+
+    public static void set(HttpServletRequest request, Duration timeout) {
+        request.setAttribute(ATTRIBUTE, timeout);
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        Object timeout = request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (timeout instanceof Duration && request instanceof AsyncWebRequest) {
+            ((AsyncWebRequest) request).setTimeout(((Duration) timeout).toMillis());
+        }
+    }
+}
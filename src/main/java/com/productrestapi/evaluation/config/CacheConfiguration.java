@@ -0,0 +1,17 @@
+package com.productrestapi.evaluation.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Read-through cache in front of the single product and price reads. Size, TTL and
+ * statistics are configured through {@code spring.cache.caffeine.spec}; hit, miss and
+ * eviction counters are published by the actuator as {@code cache.gets} and {@code cache.evictions}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRICES = "prices";
+}
@@ -0,0 +1,73 @@
+package com.productrestapi.evaluation.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes the value of a {@link CompletableFuture} that is already complete on the current thread,
+ * as if the handler had returned it directly. This avoids the async dispatch when the handler ran
+ * inline; futures still running are handed to the default async handling.
+ */
+public class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final HandlerMethodReturnValueHandler delegate;
+
+    public CompletedFutureReturnValueHandler(HandlerMethodReturnValueHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return CompletableFuture.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        CompletableFuture<?> future = (CompletableFuture<?>) returnValue;
+        if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+            this.delegate.handleReturnValue(future.join(), new NestedReturnType(returnType), mavContainer, webRequest);
+        } else {
+            this.delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+        }
+    }
+
+    /**
+     * The return type of the handler seen through the future, e.g. {@code ResponseEntity<Product>}.
+     */
+    private static class NestedReturnType extends MethodParameter {
+
+        private final ResolvableType nestedType;
+
+        NestedReturnType(MethodParameter returnType) {
+            super(returnType);
+            this.nestedType = ResolvableType.forMethodParameter(returnType).getGeneric();
+        }
+
+        NestedReturnType(NestedReturnType original) {
+            super(original);
+            this.nestedType = original.nestedType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return this.nestedType.toClass();
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return this.nestedType.getType();
+        }
+
+        @Override
+        public NestedReturnType clone() {
+            return new NestedReturnType(this);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.productrestapi.evaluation.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.productrestapi.evaluation.metrics.CountingJackson2HttpMessageConverter;
+import com.productrestapi.evaluation.metrics.CountingSmileHttpMessageConverter;
+import com.productrestapi.evaluation.metrics.HibernateRequestMetrics;
+import com.productrestapi.evaluation.metrics.RequestMetricsFilter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import javax.servlet.DispatcherType;
+
+/**
+ * Per-request JDBC statement, loaded entity and JSON (or Smile) byte counters. They are published by
+ * {@link com.productrestapi.evaluation.metrics.RequestMetricsFilter}; percentiles are configured
+ * through {@code management.metrics.distribution} in application.yml.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer requestMetricsHibernateCustomizer() {
+        HibernateRequestMetrics requestMetrics = new HibernateRequestMetrics();
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, requestMetrics);
+            properties.put(AvailableSettings.INTERCEPTOR, requestMetrics);
+        };
+    }
+
+    /**
+     * Also on async dispatches, where the response of an async handler is written.
+     */
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilterRegistration(RequestMetricsFilter filter) {
+        FilterRegistrationBean<RequestMetricsFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+
+    /**
+     * Replaces the default Jackson converter.
+     */
+    @Bean
+    public CountingJackson2HttpMessageConverter countingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new CountingJackson2HttpMessageConverter(objectMapper);
+    }
+
+    /**
+     * Replaces the default Smile converter, for clients that accept {@code application/x-jackson-smile}. Built
+     * from the same {@code spring.jackson} settings as the JSON one, so both encode the same document.
+     */
+    @Bean
+    public CountingSmileHttpMessageConverter countingSmileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new CountingSmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,17 @@
+package com.productrestapi.evaluation.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keep the read-only transaction of the annotated method on the primary pool, see
+ * {@link TransactionRoutingDataSource}. Without the {@code replica} profile it has no effect.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadFromPrimary {
+}
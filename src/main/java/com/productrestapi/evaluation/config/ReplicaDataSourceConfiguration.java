@@ -0,0 +1,68 @@
+package com.productrestapi.evaluation.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Two connection pools, enabled by {@code evaluation.datasource.replica.enabled}: the primary one, configured
+ * like the single default pool under {@code spring.datasource}, takes the writes and the schema migrations; the
+ * replica one, under {@code evaluation.datasource.replica}, takes the {@code @Transactional(readOnly = true)}
+ * service reads, except the ones marked {@link ReadFromPrimary}. Each pool has its own limits and publishes its own {@code hikaricp.*} metrics, tagged with
+ * its pool name.
+ */
+@Configuration
+@ConditionalOnProperty(name = "evaluation.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfiguration {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Not a candidate for autowiring, {@link DataSourceProperties} stays the primary one.
+     */
+    @Bean(autowireCandidate = false)
+    @ConfigurationProperties("evaluation.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("evaluation.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource() {
+        return this.replicaDataSourceProperties().initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        TransactionRoutingDataSource routingDataSource = new TransactionRoutingDataSource(primaryDataSource, replicaDataSource);
+        // resolved here, the proxy reads the connection defaults from it right away
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor readFromPrimaryAdvisor() {
+        return new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(ReadFromPrimary.class),
+                new TransactionRoutingDataSource.PrimaryReadInterceptor());
+    }
+}
@@ -0,0 +1,204 @@
+package com.productrestapi.evaluation.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Single flight for identical reads: while a request is being loaded, every request with the same path, query
+ * string and negotiated media type gets the same response instead of loading it again. The leader serializes
+ * the body once, the others share the bytes, and no thread waits for them. Requests that start after a write
+ * was committed, seen through the generation of the data they read, do not join loads started before it: the
+ * whole catalogue for a list, the entity itself for a single read. The serialized responses can also be kept in
+ * a {@link ResponseCache}; their loads then read from the primary, see {@link TransactionRoutingDataSource}. Loads and coalesced requests are counted as
+ * {@code evaluation.coalescing.requests}, tagged by name and result.
+ */
+public class RequestCoalescer {
+
+    private static final List<MediaType> PRODUCIBLE = Arrays.asList(
+            MediaType.APPLICATION_JSON, new MediaType("application", "x-jackson-smile"));
+
+    private final RequestExecutor requestExecutor;
+    private final HttpMessageConverters messageConverters;
+    private final MeterRegistry meterRegistry;
+    private final Generations generations;
+    private final ResponseCache responseCache;
+    private final boolean enabled;
+    private final ConcurrentMap<List<Object>, CompletableFuture<ResponseEntity<?>>> flights = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(RequestExecutor requestExecutor, HttpMessageConverters messageConverters,
+                            MeterRegistry meterRegistry, Generations generations, ResponseCache responseCache,
+                            boolean enabled) {
+        this.requestExecutor = requestExecutor;
+        this.messageConverters = messageConverters;
+        this.meterRegistry = meterRegistry;
+        this.generations = generations;
+        this.responseCache = responseCache;
+        this.enabled = enabled;
+        meterRegistry.gaugeMapSize("evaluation.coalescing.in.flight", Collections.emptyList(), this.flights);
+    }
+
+    /**
+     * Answer from the {@link ResponseCache}, join the read already running for the same request, or run it
+     * through the {@link RequestExecutor}.
+     * @param name the name of the read, for the metrics.
+     * @param request the request being served.
+     * @param loader builds the response; its body is serialized before it is shared.
+     * @return {@link CompletableFuture} of the response, with a {@code byte[]} body when it was serialized.
+     */
+    public CompletableFuture<ResponseEntity<?>> submit(String name, HttpServletRequest request,
+                                                       Supplier<? extends ResponseEntity<?>> loader) {
+        return this.submit(name, null, null, request, loader);
+    }
+
+    /**
+     * Like {@link #submit(String, HttpServletRequest, Supplier)}, for a read of one entity: only the writes on
+     * that entity make its cached response unreachable.
+     * @param name the name of the read, for the metrics.
+     * @param cacheName the cache the entity is kept in, see {@link Generations}.
+     * @param id the entity id.
+     * @param request the request being served.
+     * @param loader builds the response; its body is serialized before it is shared.
+     * @return {@link CompletableFuture} of the response, with a {@code byte[]} body when it was serialized.
+     */
+    public CompletableFuture<ResponseEntity<?>> submit(String name, String cacheName, Object id, HttpServletRequest request,
+                                                       Supplier<? extends ResponseEntity<?>> loader) {
+        MediaType mediaType = this.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        if (!this.enabled || mediaType == null) {
+            return this.requestExecutor.submit(loader::get);
+        }
+        List<Object> key = Arrays.asList(request.getRequestURI(), request.getQueryString(), mediaType,
+                this.generations.of(cacheName, id));
+        ResponseEntity<?> cached = this.responseCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<ResponseEntity<?>> flight = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> running = this.flights.putIfAbsent(key, flight);
+        if (running != null) {
+            this.counter(name, "coalesced").increment();
+            return running;
+        }
+        this.counter(name, "loaded").increment();
+        CompletableFuture<ResponseEntity<?>> work;
+        try {
+            work = this.requestExecutor.submit(() -> {
+                ResponseEntity<?> response = this.serialize(this.responseCache.isEnabled()
+                        ? TransactionRoutingDataSource.readFromPrimary(loader) : loader.get(), mediaType);
+                this.responseCache.put(key, response);
+                return response;
+            });
+        } catch (RuntimeException e) {
+            // inline failure or rejected by the pool, the requests that joined get the same error
+            this.flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        work.whenComplete((response, failure) -> {
+            this.flights.remove(key, flight);
+            if (failure != null) {
+                flight.completeExceptionally(failure);
+            } else {
+                flight.complete(response);
+            }
+        });
+        return flight;
+    }
+
+    /**
+     * The generation of the data a read depends on, moved by every committed write on it.
+     */
+    @FunctionalInterface
+    public interface Generations {
+
+        /**
+         * @param cacheName the cache of the entity read, null for a read over the whole catalogue.
+         * @param id the id of the entity read, null for a read over the whole catalogue.
+         */
+        long of(String cacheName, Object id);
+    }
+
+    private Counter counter(String name, String result) {
+        return this.meterRegistry.counter("evaluation.coalescing.requests", "name", name, "result", result);
+    }
+
+    /**
+     * The media type the response would be written in, or {@code null} when it is not one the shared
+     * bytes can be kept in.
+     */
+    private MediaType negotiate(String accept) {
+        List<MediaType> accepted;
+        try {
+            accepted = accept == null ? Collections.singletonList(MediaType.ALL) : MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType acceptedType : accepted) {
+            for (MediaType producible : PRODUCIBLE) {
+                if (acceptedType.isCompatibleWith(producible)) {
+                    return producible;
+                }
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<?> serialize(ResponseEntity<?> response, MediaType mediaType) {
+        Object body = response.getBody();
+        if (body == null) {
+            return response;
+        }
+        for (HttpMessageConverter<?> converter : this.messageConverters) {
+            if (converter.canWrite(body.getClass(), mediaType)) {
+                BufferedOutputMessage outputMessage = new BufferedOutputMessage();
+                try {
+                    ((HttpMessageConverter<Object>) converter).write(body, mediaType, outputMessage);
+                } catch (IOException e) {
+                    throw new HttpMessageNotWritableException("Could not write " + mediaType + " response", e);
+                }
+                return ResponseEntity.status(response.getStatusCode())
+                        .headers(response.getHeaders())
+                        .contentType(outputMessage.getHeaders().getContentType())
+                        .body(outputMessage.body.toByteArray());
+            }
+        }
+        return response;
+    }
+
+    private static class BufferedOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return this.body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+    }
+}
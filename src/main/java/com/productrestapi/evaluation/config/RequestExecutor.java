@@ -0,0 +1,63 @@
+package com.productrestapi.evaluation.config;
+
+import com.productrestapi.evaluation.metrics.RequestMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Runs the work of a request handler. In async mode the work goes to a bounded pool and the servlet
+ * thread is released; when the pool and its queue are full the submission is rejected with a
+ * {@link java.util.concurrent.RejectedExecutionException}. Otherwise the work runs on the calling thread
+ * and the future is already complete.
+ */
+public class RequestExecutor implements DisposableBean {
+
+    private final ThreadPoolTaskExecutor executor;
+
+    RequestExecutor(ThreadPoolTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    public static RequestExecutor inline() {
+        return new RequestExecutor(null);
+    }
+
+    public static RequestExecutor bounded(int corePoolSize, int maxPoolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("request-");
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // the handler runs with the caller's authentication and request counters
+        executor.setTaskDecorator(task -> new DelegatingSecurityContextRunnable(RequestMetrics.propagate(task)));
+        executor.initialize();
+        return new RequestExecutor(executor);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        if (this.executor == null) {
+            return CompletableFuture.completedFuture(work.get());
+        }
+        return CompletableFuture.supplyAsync(work, this.executor);
+    }
+
+    /**
+     * The pool, or {@code null} when the work runs inline.
+     */
+    public ThreadPoolExecutor getThreadPoolExecutor() {
+        return this.executor == null ? null : this.executor.getThreadPoolExecutor();
+    }
+
+    @Override
+    public void destroy() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+}
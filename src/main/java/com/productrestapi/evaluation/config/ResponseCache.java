@@ -0,0 +1,58 @@
+package com.productrestapi.evaluation.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Responses already serialized by the {@link RequestCoalescer}, kept as bytes. The keys carry the generation of
+ * the data read, so a committed write makes the entries it affects unreachable and the old ones age out: every
+ * list, but only the single reads of the entities written. Size is bounded by
+ * the body bytes, configured with {@code evaluation.response-cache.spec}; hit and miss counters are published
+ * as {@code cache.gets} with the cache name {@code responses}.
+ */
+public class ResponseCache {
+
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Cache<List<Object>, ResponseEntity<byte[]>> cache;
+
+    private ResponseCache(Cache<List<Object>, ResponseEntity<byte[]>> cache) {
+        this.cache = cache;
+    }
+
+    public static ResponseCache disabled() {
+        return new ResponseCache(null);
+    }
+
+    public static ResponseCache of(String spec, MeterRegistry meterRegistry) {
+        Cache<List<Object>, ResponseEntity<byte[]>> cache = Caffeine.from(spec)
+                .weigher((List<Object> key, ResponseEntity<byte[]> response) -> response.getBody().length + ENTRY_OVERHEAD)
+                .recordStats()
+                .build();
+        return new ResponseCache(CaffeineCacheMetrics.monitor(meterRegistry, cache, "responses"));
+    }
+
+    boolean isEnabled() {
+        return this.cache != null;
+    }
+
+    ResponseEntity<?> get(List<Object> key) {
+        return this.cache == null ? null : this.cache.getIfPresent(key);
+    }
+
+    /**
+     * Keep a successful response whose body was serialized.
+     */
+    @SuppressWarnings("unchecked")
+    void put(List<Object> key, ResponseEntity<?> response) {
+        if (this.cache != null && response.getStatusCode() == HttpStatus.OK && response.getBody() instanceof byte[]) {
+            this.cache.put(key, (ResponseEntity<byte[]>) response);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.productrestapi.evaluation.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs, such as the change event dispatcher. They run on the single thread of the
+ * default scheduler, so a job never overlaps with itself.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
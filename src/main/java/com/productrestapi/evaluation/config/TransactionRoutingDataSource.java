@@ -0,0 +1,75 @@
+package com.productrestapi.evaluation.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends the connections of read-only transactions to the replica pool and everything else to the primary.
+ * It must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the
+ * transaction manager asks for the connection before it marks the transaction read-only.
+ * <p>
+ * Reads whose result outlives the request, such as cache loads and in-memory indexes, must not come from a
+ * replica that lags behind a write: the stale row would be kept until it expires, long after the replica caught
+ * up. They stay read-only but run on the primary, with {@link ReadFromPrimary} or {@link #readFromPrimary}.
+ */
+public class TransactionRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    public TransactionRoutingDataSource(DataSource primary, DataSource replica) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        targets.put(Route.REPLICA, replica);
+        this.setTargetDataSources(targets);
+        this.setDefaultTargetDataSource(primary);
+        this.setLenientFallback(false);
+    }
+
+    /**
+     * Run the reads of the given work on the primary, read-only transactions included. The connection is taken
+     * at the first statement, so the work may open the transaction itself or run inside one not used yet.
+     */
+    public static <T> T readFromPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_READS.get();
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY_READS.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !PRIMARY_READS.get()
+                ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    /**
+     * Applies {@link ReadFromPrimary} to the annotated methods.
+     */
+    public static class PrimaryReadInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Boolean previous = PRIMARY_READS.get();
+            PRIMARY_READS.set(Boolean.TRUE);
+            try {
+                return invocation.proceed();
+            } finally {
+                PRIMARY_READS.set(previous);
+            }
+        }
+    }
+}
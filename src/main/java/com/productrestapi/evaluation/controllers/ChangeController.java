@@ -0,0 +1,35 @@
+package com.productrestapi.evaluation.controllers;
+
+import com.productrestapi.evaluation.services.ChangeDispatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+/**
+ * Server-Sent Events stream of the product and price changes. Every event carries its sequence as id,
+ * so a client that reconnects with {@code Last-Event-ID} (or {@code after}) receives only what it missed.
+ */
+@RestController
+@RequestMapping(path = "/api/v1/changes")
+public class ChangeController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    final ChangeDispatcher changeDispatcher;
+    final Duration streamTimeout;
+
+    public ChangeController(ChangeDispatcher changeDispatcher,
+                            @Value("${evaluation.changes.stream-timeout:10m}") Duration streamTimeout) {
+        this.changeDispatcher = changeDispatcher;
+        this.streamTimeout = streamTimeout;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getChanges(@RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId,
+                                 @RequestParam(value = "after", required = false) Long after) {
+        return this.changeDispatcher.subscribe(lastEventId != null ? lastEventId : after, this.streamTimeout.toMillis());
+    }
+}
@@ -1,55 +1,180 @@
 package com.productrestapi.evaluation.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.config.CacheConfiguration;
+import com.productrestapi.evaluation.config.RequestCoalescer;
+import com.productrestapi.evaluation.config.RequestExecutor;
+import com.productrestapi.evaluation.exceptions.ConflictingParametersException;
 import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.PriceHistory;
+import com.productrestapi.evaluation.model.request.LookupRequest;
+import com.productrestapi.evaluation.model.request.PriceFilter;
+import com.productrestapi.evaluation.model.request.PriceBulkRequest;
 import com.productrestapi.evaluation.model.request.PriceRequest;
+import com.productrestapi.evaluation.model.response.BulkItemResult;
+import com.productrestapi.evaluation.model.response.MultiGetResult;
+import com.productrestapi.evaluation.repositories.PriceRepositoryCustom;
 import com.productrestapi.evaluation.services.PriceService;
+import com.productrestapi.evaluation.utils.CursorUtils;
+import com.productrestapi.evaluation.utils.ETagUtils;
+import com.productrestapi.evaluation.utils.FieldsUtils;
+import com.productrestapi.evaluation.utils.NdjsonUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(path = "/api/v1/price")
 public class PriceController {
 
     final PriceService priceService;
+    final ObjectMapper objectMapper;
+    final RequestExecutor requestExecutor;
+    final RequestCoalescer requestCoalescer;
+    final int maxBulkItems;
 
-    public PriceController(PriceService priceService) {
+    public PriceController(PriceService priceService, ObjectMapper objectMapper, RequestExecutor requestExecutor,
+                           RequestCoalescer requestCoalescer,
+                           @Value("${evaluation.bulk.max-items:10000}") int maxBulkItems) {
         this.priceService = priceService;
+        this.objectMapper = objectMapper;
+        this.requestExecutor = requestExecutor;
+        this.requestCoalescer = requestCoalescer;
+        this.maxBulkItems = maxBulkItems;
     }
 
     @GetMapping
-    public ResponseEntity<List<Price>> getAllPrices(@RequestParam(name = "index", defaultValue = "0") int index,
-                                                    @RequestParam(value = "size", defaultValue = "15") int size,
-                                                    @RequestParam(value = "sortBy", defaultValue = "id") String name) {
-        Pageable pageable = PageRequest.of(index, size, Sort.by(name).ascending());
-        return ResponseEntity.ok(this.priceService.getAllPrices(pageable));
+    public CompletableFuture<ResponseEntity<?>> getAllPrices(@RequestParam(name = "index", defaultValue = "0") int index,
+                                                             @RequestParam(value = "size", defaultValue = "15") int size,
+                                                             @RequestParam(value = "sortBy", defaultValue = "id") String name,
+                                                             @RequestParam(value = "after", required = false) String after,
+                                                             PriceFilter filter, HttpServletRequest request) {
+        return this.requestCoalescer.submit("prices", request, () -> {
+            if (after != null) {
+                Slice<Price> slice = this.priceService.getPricesAfter(filter, CursorUtils.decode(after), size);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(ETagUtils.ofPrices(slice.getContent()));
+                String nextCursor = CursorUtils.nextCursor(slice, Price::getId);
+                if (nextCursor != null) {
+                    response.header(CursorUtils.NEXT_CURSOR_HEADER, nextCursor);
+                }
+                return response.body(slice.getContent());
+            }
+            Pageable pageable = PageRequest.of(index, size, Sort.by(name).ascending());
+            List<Price> prices = this.priceService.getAllPrices(filter, pageable);
+            return ResponseEntity.ok().eTag(ETagUtils.ofPrices(prices)).body(prices);
+        });
+    }
+
+    @GetMapping(params = "fields")
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getPriceFields(@RequestParam("fields") String fields,
+                                                                                       @RequestParam(name = "index", defaultValue = "0") int index,
+                                                                                       @RequestParam(value = "size", defaultValue = "15") int size,
+                                                                                       @RequestParam(value = "sortBy", defaultValue = "id") String name,
+                                                                                       @RequestParam(value = "after", required = false) String after,
+                                                                                       PriceFilter filter) {
+        List<String> selected = FieldsUtils.parse(fields, PriceRepositoryCustom.FIELDS);
+        return this.requestExecutor.submit(() -> {
+            if (after != null) {
+                Slice<Map<String, Object>> slice = this.priceService.getPriceFieldsAfter(filter, CursorUtils.decode(after), size, selected);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                String nextCursor = CursorUtils.nextCursor(slice, row -> (Long) row.get("id"));
+                if (nextCursor != null) {
+                    response.header(CursorUtils.NEXT_CURSOR_HEADER, nextCursor);
+                }
+                return response.body(slice.getContent());
+            }
+            Pageable pageable = PageRequest.of(index, size, Sort.by(name).ascending());
+            return ResponseEntity.ok(this.priceService.getPriceFields(filter, pageable, selected));
+        });
+    }
+
+    @GetMapping(params = "asOf")
+    public CompletableFuture<ResponseEntity<List<PriceHistory>>> getPricesAsOf(@RequestParam("productId") long productId,
+                                                                               @RequestParam("asOf") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf) {
+        return this.requestExecutor.submit(() -> ResponseEntity.ok(this.priceService.getPricesAsOf(productId, asOf)));
+    }
+
+    /**
+     * Without it a request with both would match the {@code fields} and the {@code asOf} mappings, and fail as ambiguous.
+     */
+    @GetMapping(params = {"fields", "asOf"})
+    public void getPriceFieldsAsOf() {
+        throw new ConflictingParametersException("fields", "asOf");
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Price> getPrice(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(this.priceService.getPrice(id));
+    public CompletableFuture<ResponseEntity<?>> getPrice(@PathVariable("id") Long id, HttpServletRequest request) {
+        return this.requestCoalescer.submit("price", CacheConfiguration.PRICES, id, request, () -> {
+            Price price = this.priceService.getPrice(id);
+            return ResponseEntity.ok()
+                    .eTag(ETagUtils.of(price))
+                    .lastModified(ETagUtils.lastModified(price))
+                    .body(price);
+        });
     }
 
     @PostMapping
-    public ResponseEntity<Price> createPrice(@RequestBody @Valid PriceRequest price) {
-        return new ResponseEntity<>(this.priceService.createPrice(price), HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<Price>> createPrice(@RequestBody @Valid PriceRequest price) {
+        return this.requestExecutor.submit(() ->
+                new ResponseEntity<>(this.priceService.createPrice(price), HttpStatus.CREATED));
+    }
+
+    @PostMapping("/lookup")
+    public CompletableFuture<ResponseEntity<MultiGetResult<Price>>> getPrices(@Valid @RequestBody LookupRequest lookup) {
+        return this.requestExecutor.submit(() -> {
+            MultiGetResult<Price> result = this.priceService.getPrices(lookup.getIds());
+            return ResponseEntity.ok().eTag(ETagUtils.ofPrices(result.getItems())).body(result);
+        });
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<List<BulkItemResult>>> savePrices(@RequestBody List<PriceBulkRequest> prices) {
+        return this.requestExecutor.submit(() -> ResponseEntity.ok(this.priceService.savePrices(prices)));
+    }
+
+    @PostMapping(path = "/bulk", consumes = NdjsonUtils.MEDIA_TYPE)
+    public CompletableFuture<ResponseEntity<List<BulkItemResult>>> savePricesNdjson(HttpServletRequest request) {
+        List<PriceBulkRequest> prices = NdjsonUtils.read(new ServletServerHttpRequest(request), PriceBulkRequest.class, this.objectMapper,
+                this.maxBulkItems);
+        return this.requestExecutor.submit(() -> ResponseEntity.ok(this.priceService.savePrices(prices)));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deletePrice(@PathVariable("id") Long id) {
-        priceService.deletePrice(id);
-        return ResponseEntity.ok().build();
+    public CompletableFuture<ResponseEntity<?>> deletePrice(@PathVariable("id") Long id) {
+        return this.requestExecutor.submit(() -> {
+            priceService.deletePrice(id);
+            return ResponseEntity.ok().build();
+        });
     }
 
     @PostMapping("/{id}")
-    public ResponseEntity<Price> updatePrice(@PathVariable("id") Long id, @RequestBody @Valid Price price) {
-        return ResponseEntity.ok(this.priceService.updatePrice(id, price));
+    public CompletableFuture<ResponseEntity<Price>> updatePrice(@PathVariable("id") Long id,
+                                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                @RequestBody @Valid Price price) {
+        Long expectedVersion = ETagUtils.expectedVersion(ifMatch);
+        return this.requestExecutor.submit(() -> {
+            Price updated = this.priceService.updatePrice(id, price.setVersion(expectedVersion));
+            return ResponseEntity.ok()
+                    .eTag(ETagUtils.of(updated))
+                    .lastModified(ETagUtils.lastModified(updated))
+                    .body(updated);
+        });
     }
 }
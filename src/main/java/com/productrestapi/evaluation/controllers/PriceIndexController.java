@@ -0,0 +1,35 @@
+package com.productrestapi.evaluation.controllers;
+
+import com.productrestapi.evaluation.model.response.CurrentPrice;
+import com.productrestapi.evaluation.services.PriceIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Pricing lookups answered from the in-memory {@link PriceIndex}. They do not touch the database,
+ * so they run on the servlet thread even in async mode.
+ */
+@RestController
+@RequestMapping(path = "/api/v1/price-index")
+@ConditionalOnProperty(name = "evaluation.price-index.enabled", havingValue = "true", matchIfMissing = true)
+public class PriceIndexController {
+
+    final PriceIndex priceIndex;
+
+    public PriceIndexController(PriceIndex priceIndex) {
+        this.priceIndex = priceIndex;
+    }
+
+    @GetMapping("/product/{productId}")
+    public ResponseEntity<CurrentPrice> getCurrentPrice(@PathVariable("productId") long productId) {
+        return ResponseEntity.ok(this.priceIndex.getCurrentPrice(productId));
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<long[]> getProductIdsPricedBetween(@RequestParam("minAmount") double minAmount,
+                                                             @RequestParam("maxAmount") double maxAmount,
+                                                             @RequestParam(value = "status", defaultValue = PriceIndex.ACTIVE) String status) {
+        return ResponseEntity.ok(this.priceIndex.getProductIdsPricedBetween(minAmount, maxAmount, status));
+    }
+}
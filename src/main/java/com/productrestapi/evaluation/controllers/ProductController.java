@@ -1,55 +1,185 @@
 package com.productrestapi.evaluation.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.config.AsyncTimeout;
+import com.productrestapi.evaluation.config.CacheConfiguration;
+import com.productrestapi.evaluation.config.RequestCoalescer;
+import com.productrestapi.evaluation.config.RequestExecutor;
+import com.productrestapi.evaluation.exceptions.ConflictingParametersException;
 import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.ProductFilter;
+import com.productrestapi.evaluation.model.response.BulkItemResult;
+import com.productrestapi.evaluation.model.response.MultiGetResult;
+import com.productrestapi.evaluation.repositories.ProductRepositoryCustom;
+import com.productrestapi.evaluation.services.ExportFormat;
 import com.productrestapi.evaluation.services.ProductService;
+import com.productrestapi.evaluation.utils.CursorUtils;
+import com.productrestapi.evaluation.utils.ETagUtils;
+import com.productrestapi.evaluation.utils.FieldsUtils;
+import com.productrestapi.evaluation.utils.NdjsonUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping("/api/v1/product")
 public class ProductController {
 
     final ProductService productService;
+    final ObjectMapper objectMapper;
+    final RequestExecutor requestExecutor;
+    final RequestCoalescer requestCoalescer;
+    final int maxBulkItems;
+    final Duration exportTimeout;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectMapper objectMapper, RequestExecutor requestExecutor,
+                             RequestCoalescer requestCoalescer,
+                             @Value("${evaluation.bulk.max-items:10000}") int maxBulkItems,
+                             @Value("${evaluation.export.timeout:10m}") Duration exportTimeout) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.requestExecutor = requestExecutor;
+        this.requestCoalescer = requestCoalescer;
+        this.maxBulkItems = maxBulkItems;
+        this.exportTimeout = exportTimeout;
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts(@RequestParam(name = "index", defaultValue = "0") int index,
-                                                        @RequestParam(value = "size", defaultValue = "15") int size,
-                                                        @RequestParam(value = "sortBy", defaultValue = "id") String name) {
-        Pageable pageable = PageRequest.of(index, size, Sort.by(name).ascending());
-        return ResponseEntity.ok(this.productService.getAllProducts(pageable));
+    public CompletableFuture<ResponseEntity<?>> getAllProducts(@RequestParam(name = "index", defaultValue = "0") int index,
+                                                               @RequestParam(value = "size", defaultValue = "15") int size,
+                                                               @RequestParam(value = "sortBy", defaultValue = "id") String name,
+                                                               @RequestParam(value = "after", required = false) String after,
+                                                               ProductFilter filter, HttpServletRequest request) {
+        return this.requestCoalescer.submit("products", request, () -> {
+            if (after != null) {
+                Slice<Product> slice = this.productService.getProductsAfter(filter, CursorUtils.decode(after), size);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(ETagUtils.ofProducts(slice.getContent()));
+                String nextCursor = CursorUtils.nextCursor(slice, Product::getId);
+                if (nextCursor != null) {
+                    response.header(CursorUtils.NEXT_CURSOR_HEADER, nextCursor);
+                }
+                return response.body(slice.getContent());
+            }
+            Pageable pageable = PageRequest.of(index, size, Sort.by(name).ascending());
+            List<Product> products = this.productService.getAllProducts(filter, pageable);
+            return ResponseEntity.ok().eTag(ETagUtils.ofProducts(products)).body(products);
+        });
+    }
+
+    @GetMapping(params = "fields")
+    public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getProductFields(@RequestParam("fields") String fields,
+                                                                                         @RequestParam(name = "index", defaultValue = "0") int index,
+                                                                                         @RequestParam(value = "size", defaultValue = "15") int size,
+                                                                                         @RequestParam(value = "sortBy", defaultValue = "id") String name,
+                                                                                         @RequestParam(value = "after", required = false) String after,
+                                                                                         ProductFilter filter) {
+        List<String> selected = FieldsUtils.parse(fields, ProductRepositoryCustom.FIELDS);
+        return this.requestExecutor.submit(() -> {
+            if (after != null) {
+                Slice<Map<String, Object>> slice = this.productService.getProductFieldsAfter(filter, CursorUtils.decode(after), size, selected);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                String nextCursor = CursorUtils.nextCursor(slice, row -> (Long) row.get("id"));
+                if (nextCursor != null) {
+                    response.header(CursorUtils.NEXT_CURSOR_HEADER, nextCursor);
+                }
+                return response.body(slice.getContent());
+            }
+            Pageable pageable = PageRequest.of(index, size, Sort.by(name).ascending());
+            return ResponseEntity.ok(this.productService.getProductFields(filter, pageable, selected));
+        });
+    }
+
+    @GetMapping(params = "ids")
+    public CompletableFuture<ResponseEntity<MultiGetResult<Product>>> getProducts(@RequestParam("ids") List<Long> ids) {
+        return this.requestExecutor.submit(() -> {
+            MultiGetResult<Product> result = this.productService.getProducts(ids);
+            return ResponseEntity.ok().eTag(ETagUtils.ofProducts(result.getItems())).body(result);
+        });
+    }
+
+    /**
+     * Without it a request with both would match the {@code fields} and the {@code ids} mappings, and fail as ambiguous.
+     */
+    @GetMapping(params = {"fields", "ids"})
+    public void getProductFieldsByIds() {
+        throw new ConflictingParametersException("fields", "ids");
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                                                HttpServletRequest request) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        AsyncTimeout.set(request, this.exportTimeout);
+        StreamingResponseBody body = out -> this.productService.exportProducts(out, exportFormat);
+        return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(this.productService.getProduct(id));
+    public CompletableFuture<ResponseEntity<?>> getProduct(@PathVariable("id") Long id, HttpServletRequest request) {
+        return this.requestCoalescer.submit("product", CacheConfiguration.PRODUCTS, id, request, () -> {
+            Product product = this.productService.getProduct(id);
+            return ResponseEntity.ok()
+                    .eTag(ETagUtils.of(product))
+                    .lastModified(ETagUtils.lastModified(product))
+                    .body(product);
+        });
     }
 
     @PostMapping
-    public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
-        return new ResponseEntity<>(this.productService.createProduct(product), HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<Product>> createProduct(@Valid @RequestBody Product product) {
+        return this.requestExecutor.submit(() ->
+                new ResponseEntity<>(this.productService.createProduct(product), HttpStatus.CREATED));
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<List<BulkItemResult>>> saveProducts(@RequestBody List<Product> products) {
+        return this.requestExecutor.submit(() -> ResponseEntity.ok(this.productService.saveProducts(products)));
+    }
+
+    @PostMapping(path = "/bulk", consumes = NdjsonUtils.MEDIA_TYPE)
+    public CompletableFuture<ResponseEntity<List<BulkItemResult>>> saveProductsNdjson(HttpServletRequest request) {
+        List<Product> products = NdjsonUtils.read(new ServletServerHttpRequest(request), Product.class, this.objectMapper,
+                this.maxBulkItems);
+        return this.requestExecutor.submit(() -> ResponseEntity.ok(this.productService.saveProducts(products)));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteProduct(@PathVariable("id") Long id) {
-        productService.deleteProduct(id);
-        return ResponseEntity.ok().build();
+    public CompletableFuture<ResponseEntity<?>> deleteProduct(@PathVariable("id") Long id) {
+        return this.requestExecutor.submit(() -> {
+            productService.deleteProduct(id);
+            return ResponseEntity.ok().build();
+        });
     }
 
     @PostMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable("id") Long id, @Valid @RequestBody Product product) {
-        return ResponseEntity.ok(this.productService.updateProduct(id, product));
+    public CompletableFuture<ResponseEntity<Product>> updateProduct(@PathVariable("id") Long id,
+                                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                    @Valid @RequestBody Product product) {
+        Long expectedVersion = ETagUtils.expectedVersion(ifMatch);
+        return this.requestExecutor.submit(() -> {
+            Product updated = this.productService.updateProduct(id, product.setVersion(expectedVersion));
+            return ResponseEntity.ok()
+                    .eTag(ETagUtils.of(updated))
+                    .lastModified(ETagUtils.lastModified(updated))
+                    .body(updated);
+        });
     }
 
 }
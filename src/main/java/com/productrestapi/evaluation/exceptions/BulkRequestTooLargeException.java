@@ -0,0 +1,12 @@
+package com.productrestapi.evaluation.exceptions;
+
+public class BulkRequestTooLargeException extends RuntimeException {
+
+    public BulkRequestTooLargeException(int size, int maxItems) {
+        super("Bulk request has " + size + " items, the maximum is " + maxItems);
+    }
+
+    public BulkRequestTooLargeException(int maxItems) {
+        super("Bulk request has more than " + maxItems + " items, the maximum is " + maxItems);
+    }
+}
@@ -0,0 +1,8 @@
+package com.productrestapi.evaluation.exceptions;
+
+public class ConflictingParametersException extends RuntimeException {
+
+    public ConflictingParametersException(String parameter, String other) {
+        super("Parameters " + parameter + " and " + other + " cannot be combined");
+    }
+}
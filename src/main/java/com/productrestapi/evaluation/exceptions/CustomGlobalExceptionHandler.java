@@ -1,5 +1,7 @@
 package com.productrestapi.evaluation.exceptions;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -8,12 +10,14 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler({ProductNotFoundException.class,
-            PriceNotFoundException.class
+            PriceNotFoundException.class,
+            NoActivePriceException.class
     })
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ResponseEntity<CustomErrorResponse> customHandlerNotFound(Exception ex) {
@@ -25,4 +29,56 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
         return new ResponseEntity<>(errors, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler({InvalidCursorException.class,
+            UnsupportedExportFormatException.class,
+            TooManyIdsException.class,
+            UnknownFieldException.class,
+            ConflictingParametersException.class
+    })
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<CustomErrorResponse> customHandlerBadRequest(Exception ex) {
+        CustomErrorResponse errors = new CustomErrorResponse();
+        errors.setTimestamp(LocalDateTime.now());
+        errors.setStatus(HttpStatus.BAD_REQUEST.value());
+        errors.setError(ex.getMessage());
+
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(BulkRequestTooLargeException.class)
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public ResponseEntity<CustomErrorResponse> customHandlerPayloadTooLarge(Exception ex) {
+        CustomErrorResponse errors = new CustomErrorResponse();
+        errors.setTimestamp(LocalDateTime.now());
+        errors.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        errors.setError(ex.getMessage());
+
+        return new ResponseEntity<>(errors, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler({PreconditionFailedException.class,
+            OptimisticLockingFailureException.class
+    })
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ResponseEntity<CustomErrorResponse> customHandlerPreconditionFailed(Exception ex) {
+        CustomErrorResponse errors = new CustomErrorResponse();
+        errors.setTimestamp(LocalDateTime.now());
+        errors.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+        errors.setError(ex instanceof PreconditionFailedException ? ex.getMessage()
+                : "The resource was modified concurrently, reload it and try again");
+
+        return new ResponseEntity<>(errors, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<CustomErrorResponse> customHandlerServiceUnavailable(Exception ex) {
+        CustomErrorResponse errors = new CustomErrorResponse();
+        errors.setTimestamp(LocalDateTime.now());
+        errors.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        errors.setError("Too many requests in progress, try again later");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(errors);
+    }
+
 }
@@ -0,0 +1,9 @@
+package com.productrestapi.evaluation.exceptions;
+
+
+public class NoActivePriceException extends RuntimeException {
+
+    public NoActivePriceException(long productId) {
+        super("No active price for product id: " + productId);
+    }
+}
@@ -0,0 +1,8 @@
+package com.productrestapi.evaluation.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String ifMatch) {
+        super("If-Match does not match the current version: " + ifMatch);
+    }
+}
@@ -0,0 +1,8 @@
+package com.productrestapi.evaluation.exceptions;
+
+public class TooManyIdsException extends RuntimeException {
+
+    public TooManyIdsException(int size, int maxIds) {
+        super("Lookup has " + size + " ids, the maximum is " + maxIds);
+    }
+}
@@ -0,0 +1,10 @@
+package com.productrestapi.evaluation.exceptions;
+
+import java.util.List;
+
+public class UnknownFieldException extends RuntimeException {
+
+    public UnknownFieldException(String field, List<String> fields) {
+        super("Unknown field: " + field + ", the fields are " + String.join(", ", fields));
+    }
+}
@@ -0,0 +1,8 @@
+package com.productrestapi.evaluation.exceptions;
+
+public class UnsupportedExportFormatException extends RuntimeException {
+
+    public UnsupportedExportFormatException(String format) {
+        super("Unsupported export format: " + format);
+    }
+}
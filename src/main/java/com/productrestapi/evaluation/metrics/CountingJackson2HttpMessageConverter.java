@@ -0,0 +1,30 @@
+package com.productrestapi.evaluation.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that reports the number of bytes it writes to {@link RequestMetrics}.
+ */
+public class CountingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public CountingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        CountingOutputStream body = new CountingOutputStream(outputMessage.getBody());
+        try {
+            super.writeInternal(object, type, body.wrap(outputMessage));
+        } finally {
+            RequestMetrics.jsonBytesWritten(body.getCount());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.productrestapi.evaluation.metrics;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts the bytes written to a response body, for the Jackson converters.
+ */
+class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.out.write(b);
+        this.count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        this.out.write(b, off, len);
+        this.count += len;
+    }
+
+    long getCount() {
+        return this.count;
+    }
+
+    /**
+     * The message with this stream as its body.
+     */
+    HttpOutputMessage wrap(HttpOutputMessage outputMessage) {
+        return new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return CountingOutputStream.this;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.productrestapi.evaluation.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Smile (binary JSON) converter that reports the number of bytes it writes to {@link RequestMetrics},
+ * together with the JSON ones.
+ */
+public class CountingSmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+    public CountingSmileHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        CountingOutputStream body = new CountingOutputStream(outputMessage.getBody());
+        try {
+            super.writeInternal(object, type, body.wrap(outputMessage));
+        } finally {
+            RequestMetrics.jsonBytesWritten(body.getCount());
+        }
+    }
+}
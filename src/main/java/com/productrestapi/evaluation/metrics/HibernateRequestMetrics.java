@@ -0,0 +1,25 @@
+package com.productrestapi.evaluation.metrics;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+
+/**
+ * Counts the JDBC statements prepared and the entities loaded by Hibernate for the current request.
+ */
+public class HibernateRequestMetrics extends EmptyInterceptor implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestMetrics.statementPrepared();
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestMetrics.entityLoaded();
+        return false;
+    }
+}
@@ -0,0 +1,81 @@
+package com.productrestapi.evaluation.metrics;
+
+/**
+ * Counters for the request being served on the current thread. Work handed to another thread is only
+ * counted when it is wrapped with {@link #propagate(Runnable)}; work done outside of a request
+ * (scheduled jobs, streaming bodies) is not counted.
+ */
+public final class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long entitiesLoaded;
+    private long jsonBytes;
+
+    private RequestMetrics() {
+    }
+
+    static RequestMetrics create() {
+        return new RequestMetrics();
+    }
+
+    static void attach(RequestMetrics metrics) {
+        CURRENT.set(metrics);
+    }
+
+    static void detach() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Count the work of the task for the request that submits it.
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(metrics);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    public static void statementPrepared() {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.statements++;
+        }
+    }
+
+    public static void entityLoaded() {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.entitiesLoaded++;
+        }
+    }
+
+    public static void jsonBytesWritten(long bytes) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.jsonBytes += bytes;
+        }
+    }
+
+    public long getStatements() {
+        return this.statements;
+    }
+
+    public long getEntitiesLoaded() {
+        return this.entitiesLoaded;
+    }
+
+    public long getJsonBytes() {
+        return this.jsonBytes;
+    }
+}
@@ -0,0 +1,73 @@
+package com.productrestapi.evaluation.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Publishes the {@link RequestMetrics} of every request as distribution summaries, tagged like
+ * {@code http.server.requests} so a slow endpoint can be matched with its statement count.
+ * An async request keeps its counters across dispatches and is recorded after the last one.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS = "evaluation.request.jdbc.statements";
+    public static final String ENTITIES_LOADED = "evaluation.request.entities.loaded";
+    public static final String JSON_BYTES = "evaluation.request.json.bytes";
+
+    private static final String ATTRIBUTE = RequestMetrics.class.getName();
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestMetrics metrics = (RequestMetrics) request.getAttribute(ATTRIBUTE);
+        if (metrics == null) {
+            metrics = RequestMetrics.create();
+            request.setAttribute(ATTRIBUTE, metrics);
+        }
+        RequestMetrics.attach(metrics);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestMetrics.detach();
+            if (!request.isAsyncStarted()) {
+                this.record(request, response, metrics);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestMetrics metrics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of(
+                "method", request.getMethod(),
+                "uri", pattern != null ? pattern.toString() : "UNKNOWN",
+                "status", String.valueOf(response.getStatus()));
+        DistributionSummary.builder(STATEMENTS).baseUnit("statements").tags(tags)
+                .register(this.meterRegistry).record(metrics.getStatements());
+        DistributionSummary.builder(ENTITIES_LOADED).baseUnit("entities").tags(tags)
+                .register(this.meterRegistry).record(metrics.getEntitiesLoaded());
+        DistributionSummary.builder(JSON_BYTES).baseUnit("bytes").tags(tags)
+                .register(this.meterRegistry).record(metrics.getJsonBytes());
+    }
+}
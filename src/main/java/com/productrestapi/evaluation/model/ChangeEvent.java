@@ -0,0 +1,64 @@
+package com.productrestapi.evaluation.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * One change of a product or a price, written in the same transaction as the change itself (transactional outbox).
+ * The sequence is assigned by the dispatcher once the row is committed, so sequences grow in the order the
+ * changes became visible and a consumer can resume after the last one it received.
+ */
+@Data
+@Entity
+@Accessors(chain = true)
+@Table(name = "CHANGE_EVENT", indexes = {
+        @Index(name = "IDX_CHANGE_EVENT_SEQ_NO", columnList = "SEQ_NO", unique = true)
+})
+public class ChangeEvent {
+
+    public enum EntityType { PRODUCT, PRICE }
+
+    public enum Operation { CREATED, UPDATED, DELETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_event_seq")
+    @SequenceGenerator(name = "change_event_seq", sequenceName = "CHANGE_EVENT_SEQ", allocationSize = 50)
+    @JsonIgnore
+    private Long id;
+
+    @Column(name = "SEQ_NO")
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ENTITY_TYPE")
+    private EntityType entityType;
+
+    @Column(name = "ENTITY_ID")
+    private long entityId;
+
+    /**
+     * The product of a price change, the product itself for a product change.
+     */
+    @Column(name = "PRODUCT_ID")
+    private long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "OPERATION")
+    private Operation operation;
+
+    @Column(name = "CREATION_DATE")
+    private Instant creationDate;
+
+    /**
+     * The entity as returned by the API after the change, absent for deletions.
+     */
+    @Lob
+    @Column(name = "PAYLOAD")
+    @JsonRawValue
+    private String payload;
+}
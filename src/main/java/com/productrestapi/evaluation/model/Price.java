@@ -1,6 +1,10 @@
 package com.productrestapi.evaluation.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.experimental.Accessors;
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -9,15 +13,23 @@ import java.time.Instant;
 @Data
 @Entity
 @Accessors(chain = true)
-@Table(name = "PRICE")
+@Table(name = "PRICE", indexes = {
+        @Index(name = "IDX_PRICE_PRODUCT", columnList = "PRODUCT_ID, ID"),
+        @Index(name = "IDX_PRICE_STATUS", columnList = "STATUS, ID"),
+        @Index(name = "IDX_PRICE_AMOUNT", columnList = "AMOUNT")
+})
 public class Price {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "price_seq")
+    @SequenceGenerator(name = "price_seq", sequenceName = "PRICE_SEQ", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PRODUCT_ID")
+    @JsonIgnoreProperties({"prices", "hibernateLazyInitializer", "handler"})
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Product product;
 
     @Column(name = "CREATION_DATE")
@@ -32,4 +44,9 @@ public class Price {
 
     @Column(name = "STATUS")
     private String status;
+
+    @Version
+    @Column(name = "VERSION")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
@@ -0,0 +1,69 @@
+package com.productrestapi.evaluation.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * One version of a price, valid from {@code validFrom} (inclusive) until {@code validTo} (exclusive, null while
+ * current). Rows are only appended, and closed when the price changes or is deleted, so the prices of a product
+ * at any instant can be read back. An open version is stored with {@link #OPEN} as its end rather than null, so
+ * the lookup seeks on the (PRODUCT_ID, VALID_TO) index to the first version ending after the instant: it reads
+ * the versions valid then and the ones that started later, never the older history of the product.
+ */
+@Data
+@Entity
+@Accessors(chain = true)
+@Table(name = "PRICE_HISTORY", indexes = {
+        @Index(name = "IDX_PRICE_HISTORY_PRODUCT", columnList = "PRODUCT_ID, VALID_TO"),
+        @Index(name = "IDX_PRICE_HISTORY_PRICE", columnList = "PRICE_ID, VALID_TO")
+})
+public class PriceHistory {
+
+    /**
+     * The stored end of an open version. Timestamps are written in the JVM time zone, so anything within a
+     * day of it reads back as open.
+     */
+    public static final Instant OPEN = Instant.parse("9999-12-31T00:00:00Z");
+    private static final Instant OPEN_FROM = OPEN.minus(1, ChronoUnit.DAYS);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "price_history_seq")
+    @SequenceGenerator(name = "price_history_seq", sequenceName = "PRICE_HISTORY_SEQ", allocationSize = 50)
+    @JsonIgnore
+    private Long id;
+
+    @Column(name = "PRICE_ID")
+    private long priceId;
+
+    @Column(name = "PRODUCT_ID")
+    private long productId;
+
+    @Column(name = "AMOUNT")
+    private double price;
+
+    @Column(name = "STATUS")
+    private String status;
+
+    @Column(name = "VALID_FROM")
+    private Instant validFrom;
+
+    @Column(name = "VALID_TO", nullable = false)
+    private Instant validTo = OPEN;
+
+    /**
+     * The end of the version, null while it is current.
+     */
+    public Instant getValidTo() {
+        return this.validTo.isBefore(OPEN_FROM) ? this.validTo : null;
+    }
+
+    public PriceHistory setValidTo(Instant validTo) {
+        this.validTo = validTo == null ? OPEN : validTo;
+        return this;
+    }
+}
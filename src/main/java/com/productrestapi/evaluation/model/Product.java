@@ -1,6 +1,10 @@
 package com.productrestapi.evaluation.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.experimental.Accessors;
 
 import javax.persistence.*;
@@ -12,11 +16,16 @@ import java.util.Set;
 @Data
 @Entity
 @Accessors(chain = true)
-@Table(name = "PRODUCT")
+@Table(name = "PRODUCT", indexes = {
+        @Index(name = "IDX_PRODUCT_STATUS", columnList = "PRODUCT_STATUS, ID"),
+        @Index(name = "IDX_PRODUCT_DESCRIPTION", columnList = "DESCRIPTION"),
+        @Index(name = "IDX_PRODUCT_CREATION_DATE", columnList = "CREATION_DATE")
+})
 public class Product implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "PRODUCT_SEQ", allocationSize = 50)
     private long id;
 
     @NotNull
@@ -32,6 +41,17 @@ public class Product implements Serializable {
     @Column(name = "PRODUCT_STATUS")
     private String status;
 
+    /**
+     * Incremented on every change of the product or of one of its prices.
+     */
+    @Version
+    @Column(name = "VERSION")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL)
+    @JsonIgnoreProperties("product")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Price> prices;
 }
@@ -0,0 +1,16 @@
+package com.productrestapi.evaluation.model.request;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+@Accessors(chain = true)
+public class LookupRequest {
+
+    @NotEmpty
+    private List<@NotNull Long> ids;
+}
@@ -0,0 +1,27 @@
+package com.productrestapi.evaluation.model.request;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+/**
+ * One item of a bulk price request. Items without {@code id} are created, items with an
+ * {@code id} update the existing price.
+ */
+@Data
+@Accessors(chain = true)
+public class PriceBulkRequest {
+
+    private Long id;
+
+    @NotNull
+    private Long productId;
+
+    // a missing price reads as 0 and is rejected as not positive
+    @Positive
+    private double price;
+
+    @NotNull
+    private String status;
+}
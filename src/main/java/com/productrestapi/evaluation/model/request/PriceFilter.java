@@ -0,0 +1,21 @@
+package com.productrestapi.evaluation.model.request;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * Optional filters of the price listing, bound from query parameters. Unset filters match everything,
+ * the amount bounds are inclusive.
+ */
+@Data
+@Accessors(chain = true)
+public class PriceFilter {
+
+    private Long productId;
+
+    private String status;
+
+    private Double minAmount;
+
+    private Double maxAmount;
+}
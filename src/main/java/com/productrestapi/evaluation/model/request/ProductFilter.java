@@ -0,0 +1,25 @@
+package com.productrestapi.evaluation.model.request;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+/**
+ * Optional filters of the product listing, bound from query parameters. Unset filters match everything.
+ */
+@Data
+@Accessors(chain = true)
+public class ProductFilter {
+
+    private String status;
+
+    /**
+     * Prefix of the description, case sensitive.
+     */
+    private String description;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant createdAfter;
+}
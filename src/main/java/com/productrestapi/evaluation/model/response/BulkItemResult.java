@@ -0,0 +1,31 @@
+package com.productrestapi.evaluation.model.response;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.Collections;
+import java.util.List;
+
+@Data
+@Accessors(chain = true)
+public class BulkItemResult {
+
+    public enum Status { CREATED, UPDATED, FAILED }
+
+    private int index;
+    private Long id;
+    private Status status;
+    private List<String> errors = Collections.emptyList();
+
+    public static BulkItemResult created(int index, Long id) {
+        return new BulkItemResult().setIndex(index).setId(id).setStatus(Status.CREATED);
+    }
+
+    public static BulkItemResult updated(int index, Long id) {
+        return new BulkItemResult().setIndex(index).setId(id).setStatus(Status.UPDATED);
+    }
+
+    public static BulkItemResult failed(int index, List<String> errors) {
+        return new BulkItemResult().setIndex(index).setStatus(Status.FAILED).setErrors(errors);
+    }
+}
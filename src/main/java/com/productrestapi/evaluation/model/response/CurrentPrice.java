@@ -0,0 +1,13 @@
+package com.productrestapi.evaluation.model.response;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class CurrentPrice {
+
+    private long productId;
+    private long priceId;
+    private double price;
+}
@@ -0,0 +1,15 @@
+package com.productrestapi.evaluation.model.response;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.Collections;
+import java.util.List;
+
+@Data
+@Accessors(chain = true)
+public class MultiGetResult<T> {
+
+    private List<T> items = Collections.emptyList();
+    private List<Long> missing = Collections.emptyList();
+}
@@ -0,0 +1,32 @@
+package com.productrestapi.evaluation.repositories;
+
+import com.productrestapi.evaluation.model.ChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    /**
+     * Committed events still waiting for a sequence, oldest first.
+     */
+    List<ChangeEvent> findBySequenceIsNullOrderByIdAsc(Pageable pageable);
+
+    List<ChangeEvent> findBySequenceGreaterThanOrderBySequenceAsc(long sequence, Pageable pageable);
+
+    @Query("select max(e.sequence) from ChangeEvent e")
+    Long findMaxSequence();
+
+    /**
+     * Delete the dispatched events created before the given instant, keeping those from {@code sequence} on,
+     * so the last sequence survives restarts.
+     */
+    @Modifying
+    @Query("delete from ChangeEvent e where e.sequence < :sequence and e.creationDate < :before")
+    int deleteDispatchedBefore(@Param("before") Instant before, @Param("sequence") long sequence);
+}
@@ -0,0 +1,30 @@
+package com.productrestapi.evaluation.repositories;
+
+import com.productrestapi.evaluation.model.PriceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Long> {
+
+    /**
+     * The versions of the prices of a product that were valid at the given instant. Seeks on
+     * {@code IDX_PRICE_HISTORY_PRODUCT} to the versions ending after it, open ones included, and filters out
+     * the ones that started later.
+     */
+    @Query("select h from PriceHistory h where h.productId = :productId and h.validTo > :asOf"
+            + " and h.validFrom <= :asOf order by h.priceId")
+    List<PriceHistory> findValidAt(@Param("productId") long productId, @Param("asOf") Instant asOf);
+
+    /**
+     * Close the current version of the given prices: the one still valid at the closing instant.
+     */
+    @Modifying
+    @Query("update PriceHistory h set h.validTo = :validTo where h.priceId in :priceIds and h.validTo > :validTo")
+    int close(@Param("priceIds") Collection<Long> priceIds, @Param("validTo") Instant validTo);
+}
@@ -1,7 +1,52 @@
 package com.productrestapi.evaluation.repositories;
 
 import com.productrestapi.evaluation.model.Price;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface PriceRepository extends JpaRepository<Price, Long> {
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface PriceRepository extends JpaRepository<Price, Long>, PriceRepositoryCustom {
+
+    @Override
+    @EntityGraph(attributePaths = "product")
+    Page<Price> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "product")
+    Optional<Price> findWithProductById(Long id);
+
+    /**
+     * Load the given prices together with their products in a single query.
+     */
+    @EntityGraph(attributePaths = "product")
+    List<Price> findByIdIn(Collection<Long> ids);
+
+    /**
+     * The ids of the prices of the given products, read from {@code IDX_PRICE_PRODUCT} alone.
+     */
+    @Query("select p.id from Price p where p.product.id in :productIds")
+    List<Long> findIdsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Forward-only read of every price as (id, product id, amount, status) rows, to build the price index.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select p.id, p.product.id, p.price, p.status from Price p")
+    Stream<Object[]> streamIndexRows();
 }
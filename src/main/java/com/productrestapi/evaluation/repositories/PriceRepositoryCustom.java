@@ -0,0 +1,42 @@
+package com.productrestapi.evaluation.repositories;
+
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.request.PriceFilter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public interface PriceRepositoryCustom {
+
+    /**
+     * Fields that can be selected with {@link #findPageFields}, named like the JSON properties of a price;
+     * {@code productId} stands for the embedded product, which is not joined.
+     */
+    List<String> FIELDS = Collections.unmodifiableList(Arrays.asList(
+            "id", "productId", "price", "status", "creationDate", "modificationDate", "version"));
+
+    /**
+     * One page of the prices matching the filter, with their product, without a count query.
+     */
+    Slice<Price> findPage(PriceFilter filter, Pageable pageable);
+
+    /**
+     * Seek query for keyset pagination over the prices matching the filter, ordered by id.
+     */
+    Slice<Price> findPageAfter(PriceFilter filter, long id, int size);
+
+    /**
+     * One page of the prices matching the filter as rows of the given {@link #FIELDS} only, keyed by field
+     * name: just those columns are selected and no entity is loaded.
+     */
+    Slice<Map<String, Object>> findPageFields(PriceFilter filter, Pageable pageable, List<String> fields);
+
+    /**
+     * Seek query returning rows of the given {@link #FIELDS}, ordered by id.
+     */
+    Slice<Map<String, Object>> findFieldsAfter(PriceFilter filter, long id, int size, List<String> fields);
+}
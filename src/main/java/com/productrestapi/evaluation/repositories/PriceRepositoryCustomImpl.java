@@ -0,0 +1,108 @@
+package com.productrestapi.evaluation.repositories;
+
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.request.PriceFilter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Criteria queries for the filtered price listing. Each filter maps to an indexed column,
+ * see the indexes of {@link Price}.
+ */
+public class PriceRepositoryCustomImpl implements PriceRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public PriceRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<Price> findPage(PriceFilter filter, Pageable pageable) {
+        return this.find(filter, null, pageable);
+    }
+
+    @Override
+    public Slice<Price> findPageAfter(PriceFilter filter, long id, int size) {
+        return this.find(filter, id, PageRequest.of(0, size, Sort.by("id").ascending()));
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findPageFields(PriceFilter filter, Pageable pageable, List<String> fields) {
+        return this.findFields(filter, null, pageable, fields);
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findFieldsAfter(PriceFilter filter, long id, int size, List<String> fields) {
+        return this.findFields(filter, id, PageRequest.of(0, size, Sort.by("id").ascending()), fields);
+    }
+
+    private Slice<Price> find(PriceFilter filter, Long afterId, Pageable pageable) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Price> query = cb.createQuery(Price.class);
+        Root<Price> price = query.from(Price.class);
+        // a to-one fetch does not multiply rows, so the page limit stays in SQL
+        price.fetch("product", JoinType.LEFT);
+        query.select(price)
+                .where(this.predicates(cb, price, filter, afterId))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), price, cb));
+        return SliceUtils.page(this.entityManager.createQuery(query), pageable);
+    }
+
+    private Slice<Map<String, Object>> findFields(PriceFilter filter, Long afterId, Pageable pageable, List<String> fields) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Price> price = query.from(Price.class);
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(this.path(price, field).alias(field));
+        }
+        query.multiselect(selections)
+                .where(this.predicates(cb, price, filter, afterId))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), price, cb));
+        return SliceUtils.page(this.entityManager.createQuery(query), pageable).map(SliceUtils::toRow);
+    }
+
+    /**
+     * The product id is read from the foreign key column, without joining the product.
+     */
+    private Path<?> path(Root<Price> price, String field) {
+        return "productId".equals(field) ? price.get("product").get("id") : price.get(field);
+    }
+
+    private Predicate[] predicates(CriteriaBuilder cb, Root<Price> price, PriceFilter filter, Long afterId) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(price.get("id"), afterId));
+        }
+        if (filter.getProductId() != null) {
+            predicates.add(cb.equal(price.get("product").get("id"), filter.getProductId()));
+        }
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(price.get("status"), filter.getStatus()));
+        }
+        if (filter.getMinAmount() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(price.get("price"), filter.getMinAmount()));
+        }
+        if (filter.getMaxAmount() != null) {
+            predicates.add(cb.lessThanOrEqualTo(price.get("price"), filter.getMaxAmount()));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
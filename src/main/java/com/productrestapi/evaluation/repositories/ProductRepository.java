@@ -1,7 +1,39 @@
 package com.productrestapi.evaluation.repositories;
 
 import com.productrestapi.evaluation.model.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    /**
+     * Load the given products together with their prices in a single query.
+     */
+    @EntityGraph(attributePaths = "prices")
+    List<Product> findDistinctByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "prices")
+    Optional<Product> findWithPricesById(long id);
+
+    /**
+     * Forward-only read of the whole catalogue as (product, price) rows ordered by product, for exports.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select p, pr from Product p left join p.prices pr order by p.id, pr.id")
+    Stream<Object[]> streamCatalogue();
 }
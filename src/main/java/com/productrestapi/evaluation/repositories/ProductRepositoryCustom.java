@@ -0,0 +1,41 @@
+package com.productrestapi.evaluation.repositories;
+
+import com.productrestapi.evaluation.model.request.ProductFilter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Fields that can be selected with {@link #findPageFields}, named like the JSON properties of a product.
+     */
+    List<String> FIELDS = Collections.unmodifiableList(Arrays.asList(
+            "id", "description", "status", "creationDate", "modificationDate", "version"));
+
+    /**
+     * Ids of one page of the products matching the filter. Paging ids instead of entities keeps the
+     * LIMIT in SQL when the prices collection is fetched afterwards, and a {@link Slice} skips the count query.
+     */
+    Slice<Long> findPageIds(ProductFilter filter, Pageable pageable);
+
+    /**
+     * Seek query for keyset pagination over the products matching the filter, ordered by id.
+     */
+    Slice<Long> findIdsAfter(ProductFilter filter, long id, int size);
+
+    /**
+     * One page of the products matching the filter as rows of the given {@link #FIELDS} only, keyed by field
+     * name: just those columns are selected and no entity is loaded.
+     */
+    Slice<Map<String, Object>> findPageFields(ProductFilter filter, Pageable pageable, List<String> fields);
+
+    /**
+     * Seek query returning rows of the given {@link #FIELDS}, ordered by id.
+     */
+    Slice<Map<String, Object>> findFieldsAfter(ProductFilter filter, long id, int size, List<String> fields);
+}
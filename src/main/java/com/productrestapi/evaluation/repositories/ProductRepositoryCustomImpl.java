@@ -0,0 +1,95 @@
+package com.productrestapi.evaluation.repositories;
+
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.ProductFilter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Criteria queries for the filtered product listing. Each filter maps to an indexed column,
+ * see the indexes of {@link Product}.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public ProductRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<Long> findPageIds(ProductFilter filter, Pageable pageable) {
+        return this.findIds(filter, null, pageable);
+    }
+
+    @Override
+    public Slice<Long> findIdsAfter(ProductFilter filter, long id, int size) {
+        return this.findIds(filter, id, PageRequest.of(0, size, Sort.by("id").ascending()));
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findPageFields(ProductFilter filter, Pageable pageable, List<String> fields) {
+        return this.findFields(filter, null, pageable, fields);
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findFieldsAfter(ProductFilter filter, long id, int size, List<String> fields) {
+        return this.findFields(filter, id, PageRequest.of(0, size, Sort.by("id").ascending()), fields);
+    }
+
+    private Slice<Long> findIds(ProductFilter filter, Long afterId, Pageable pageable) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(product.get("id"))
+                .where(this.predicates(cb, product, filter, afterId))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), product, cb));
+        return SliceUtils.page(this.entityManager.createQuery(query), pageable);
+    }
+
+    private Slice<Map<String, Object>> findFields(ProductFilter filter, Long afterId, Pageable pageable, List<String> fields) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(product.get(field).alias(field));
+        }
+        query.multiselect(selections)
+                .where(this.predicates(cb, product, filter, afterId))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), product, cb));
+        return SliceUtils.page(this.entityManager.createQuery(query), pageable).map(SliceUtils::toRow);
+    }
+
+    private Predicate[] predicates(CriteriaBuilder cb, Root<Product> product, ProductFilter filter, Long afterId) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(product.get("id"), afterId));
+        }
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(product.get("status"), filter.getStatus()));
+        }
+        if (filter.getDescription() != null) {
+            predicates.add(cb.like(product.get("description"), SliceUtils.likePrefix(filter.getDescription()),
+                    SliceUtils.LIKE_ESCAPE));
+        }
+        if (filter.getCreatedAfter() != null) {
+            predicates.add(cb.greaterThan(product.get("creationDate"), filter.getCreatedAfter()));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -0,0 +1,49 @@
+package com.productrestapi.evaluation.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import javax.persistence.TypedQuery;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers shared by the criteria based repository fragments.
+ */
+class SliceUtils {
+
+    static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * Read one row more than the page size to know whether there is a next page, like Spring Data does for slices.
+     */
+    static <T> Slice<T> page(TypedQuery<T> query, Pageable pageable) {
+        List<T> rows = query.setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    /**
+     * LIKE pattern matching values that start with the given text, wildcards in the text match literally.
+     */
+    static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    /**
+     * The values of a tuple keyed by their selection alias, in selection order.
+     */
+    static Map<String, Object> toRow(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            row.put(element.getAlias(), tuple.get(element));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,51 @@
+package com.productrestapi.evaluation.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Rate limits and load shedding for the API, see {@link AdmissionFilter}. Enabled by default, turned off with
+ * {@code evaluation.admission.enabled: false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "evaluation.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfiguration {
+
+    @Bean
+    public AdmissionFilter admissionFilter(@Value("${evaluation.admission.rate-limit.enabled:true}") boolean rateLimitEnabled,
+                                           @Value("${evaluation.admission.rate-limit.reads-per-second:100}") double readsPerSecond,
+                                           @Value("${evaluation.admission.rate-limit.read-burst:200}") int readBurst,
+                                           @Value("${evaluation.admission.rate-limit.writes-per-second:10}") double writesPerSecond,
+                                           @Value("${evaluation.admission.rate-limit.write-burst:20}") int writeBurst,
+                                           @Value("${evaluation.admission.max-concurrent-requests:100}") int maxConcurrentRequests,
+                                           @Value("${evaluation.admission.max-pool-waiters:20}") int maxPoolWaiters,
+                                           ObjectProvider<HikariDataSource> pools,
+                                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        RateLimiter rateLimiter = rateLimitEnabled
+                ? new RateLimiter(readsPerSecond, readBurst, writesPerSecond, writeBurst)
+                : null;
+        return new AdmissionFilter(rateLimiter, maxConcurrentRequests, () -> waitingThreads(pools), maxPoolWaiters,
+                objectMapper, meterRegistry);
+    }
+
+    /**
+     * The threads waiting for a connection, in the pool with the most of them.
+     */
+    private static int waitingThreads(ObjectProvider<HikariDataSource> pools) {
+        int waiting = 0;
+        for (HikariDataSource pool : pools) {
+            HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+            if (poolBean != null) {
+                waiting = Math.max(waiting, poolBean.getThreadsAwaitingConnection());
+            }
+        }
+        return waiting;
+    }
+}
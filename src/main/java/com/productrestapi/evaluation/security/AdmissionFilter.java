@@ -0,0 +1,172 @@
+package com.productrestapi.evaluation.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.exceptions.CustomErrorResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Admission control in front of the API, after authentication. A caller, the OAuth client and user of its
+ * token or its address without one, that used up its read or write budget gets 429. When too many requests
+ * are in progress, or too many threads already wait for a database connection, new requests get 503 instead
+ * of queueing up on the pool. The change stream holds its connection open and is not counted as in progress.
+ * Rejections are counted as {@code evaluation.admission.rejected}, tagged by reason.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final String API = "/api/";
+    private static final String CHANGE_STREAM = "/api/v1/changes";
+
+    private final RateLimiter rateLimiter;
+    private final int maxConcurrentRequests;
+    private final IntSupplier poolWaiters;
+    private final int maxPoolWaiters;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inProgress = new AtomicInteger();
+
+    /**
+     * @param rateLimiter the budgets per caller, or {@code null} for no rate limiting.
+     * @param maxConcurrentRequests the requests in progress at once.
+     * @param poolWaiters the threads waiting for a database connection.
+     * @param maxPoolWaiters the waiting threads from which new requests are rejected.
+     */
+    public AdmissionFilter(RateLimiter rateLimiter, int maxConcurrentRequests, IntSupplier poolWaiters, int maxPoolWaiters,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.poolWaiters = poolWaiters;
+        this.maxPoolWaiters = maxPoolWaiters;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("evaluation.admission.in.progress", Collections.emptyList(), this.inProgress);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(API);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (this.rateLimiter != null) {
+            long wait = this.rateLimiter.tryAcquire(caller(request), !isRead(request));
+            if (wait > 0) {
+                this.reject(response, "rate-limit", HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(wait) + 1,
+                        "Rate limit exceeded, try again later");
+                return;
+            }
+        }
+        if (request.getRequestURI().startsWith(CHANGE_STREAM)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (this.poolWaiters.getAsInt() >= this.maxPoolWaiters) {
+            this.reject(response, "pool", HttpStatus.SERVICE_UNAVAILABLE, 1, "Too many requests in progress, try again later");
+            return;
+        }
+        if (!this.tryAcquire()) {
+            this.reject(response, "concurrency", HttpStatus.SERVICE_UNAVAILABLE, 1, "Too many requests in progress, try again later");
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                this.inProgress.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = this.inProgress.get();
+            if (current >= this.maxConcurrentRequests) {
+                return false;
+            }
+            if (this.inProgress.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, String reason, HttpStatus status, long retryAfterSeconds,
+                        String message) throws IOException {
+        this.meterRegistry.counter("evaluation.admission.rejected", "reason", reason).increment();
+        CustomErrorResponse errors = new CustomErrorResponse();
+        errors.setTimestamp(LocalDateTime.now());
+        errors.setStatus(status.value());
+        errors.setError(message);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        this.objectMapper.writeValue(response.getOutputStream(), errors);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+                // a multi-get sent as POST only reads
+                || request.getRequestURI().endsWith("/lookup");
+    }
+
+    /**
+     * The OAuth client and user of the token, or the address of an anonymous caller.
+     */
+    static String caller(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof OAuth2Authentication) {
+            OAuth2Authentication oauth = (OAuth2Authentication) authentication;
+            return oauth.getOAuth2Request().getClientId() + ":" + oauth.getName();
+        }
+        if (authentication != null && authentication.isAuthenticated()) {
+            return authentication.getName();
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+
+    private class ReleaseOnComplete implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            AdmissionFilter.this.inProgress.decrementAndGet();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
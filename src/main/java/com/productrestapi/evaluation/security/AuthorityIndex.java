@@ -0,0 +1,52 @@
+package com.productrestapi.evaluation.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Numbers the authorities that secured methods require, up to 64, so the authorities a method needs and the
+ * ones a caller has are each a {@code long} and a check is one bitwise and. The mask of a caller takes one
+ * lookup per authority it has.
+ */
+public class AuthorityIndex {
+
+    private final ConcurrentMap<String, Integer> bits = new ConcurrentHashMap<>();
+
+    /**
+     * The mask of authorities a method requires, numbering the new ones.
+     * @return the mask, or {@code null} when there are more authorities than bits.
+     */
+    synchronized Long require(Collection<String> authorities) {
+        long mask = 0;
+        for (String authority : authorities) {
+            Integer bit = this.bits.get(authority);
+            if (bit == null) {
+                if (this.bits.size() == Long.SIZE) {
+                    return null;
+                }
+                bit = this.bits.size();
+                this.bits.put(authority, bit);
+            }
+            mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * The mask of the numbered authorities the caller has.
+     */
+    long callerMask(Authentication authentication) {
+        long mask = 0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            Integer bit = this.bits.get(authority.getAuthority());
+            if (bit != null) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,42 @@
+package com.productrestapi.evaluation.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collection;
+
+/**
+ * Grants a {@link RequiredAuthorities} method when the caller has one of its authorities, without evaluating
+ * an expression or allocating.
+ */
+public class AuthorityVoter implements AccessDecisionVoter<MethodInvocation> {
+
+    private final AuthorityIndex authorityIndex;
+
+    AuthorityVoter(AuthorityIndex authorityIndex) {
+        this.authorityIndex = authorityIndex;
+    }
+
+    @Override
+    public boolean supports(ConfigAttribute attribute) {
+        return attribute instanceof RequiredAuthorities;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return MethodInvocation.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public int vote(Authentication authentication, MethodInvocation invocation, Collection<ConfigAttribute> attributes) {
+        for (ConfigAttribute attribute : attributes) {
+            if (attribute instanceof RequiredAuthorities) {
+                long required = ((RequiredAuthorities) attribute).getMask();
+                return (this.authorityIndex.callerMask(authentication) & required) != 0 ? ACCESS_GRANTED : ACCESS_DENIED;
+            }
+        }
+        return ACCESS_ABSTAIN;
+    }
+}
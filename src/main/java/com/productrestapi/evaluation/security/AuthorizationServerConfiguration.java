@@ -1,6 +1,9 @@
 package com.productrestapi.evaluation.security;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,12 +16,15 @@ import org.springframework.security.oauth2.config.annotation.web.configurers.Aut
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.approval.UserApprovalHandler;
 import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 
 @Configuration
 @EnableAuthorizationServer
+@EnableConfigurationProperties(ClientTokenProperties.class)
 public class AuthorizationServerConfiguration extends AuthorizationServerConfigurerAdapter {
 
     private static final String REALM = "MY_OAUTH_REALM";
+    private static final String CLIENT_ID = "bravo_client";
 
     private final TokenStore tokenStore;
 
@@ -26,40 +32,60 @@ public class AuthorizationServerConfiguration extends AuthorizationServerConfigu
 
     private final AuthenticationManager authenticationManager;
 
+    private final ObjectProvider<JwtAccessTokenConverter> accessTokenConverter;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ClientTokenProperties clientTokenProperties;
+
     public AuthorizationServerConfiguration(TokenStore tokenStore,
                                             UserApprovalHandler userApprovalHandler,
-                                            @Qualifier("authenticationManagerBean") AuthenticationManager authenticationManager) {
+                                            @Qualifier("authenticationManagerBean") AuthenticationManager authenticationManager,
+                                            ObjectProvider<JwtAccessTokenConverter> accessTokenConverter,
+                                            PasswordEncoder passwordEncoder,
+                                            ClientTokenProperties clientTokenProperties) {
         this.tokenStore = tokenStore;
         this.userApprovalHandler = userApprovalHandler;
         this.authenticationManager = authenticationManager;
+        this.accessTokenConverter = accessTokenConverter;
+        this.passwordEncoder = passwordEncoder;
+        this.clientTokenProperties = clientTokenProperties;
     }
 
+    /**
+     * Bcrypt and the other delegating formats, behind a cache of recently verified credentials so a client
+     * or user asking for a new token is not hashed again; disabled with
+     * {@code evaluation.security.credential-cache.enabled: false}.
+     */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    static PasswordEncoder passwordEncoder(@Value("${evaluation.security.credential-cache.enabled:true}") boolean cacheEnabled,
+                                           @Value("${evaluation.security.credential-cache.spec:maximumSize=10000,expireAfterWrite=5m}") String cacheSpec) {
+        PasswordEncoder encoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        return cacheEnabled ? new CachingPasswordEncoder(encoder, cacheSpec) : encoder;
     }
 
     @Override
     public void configure(ClientDetailsServiceConfigurer clients) throws Exception {
-
+        ClientTokenProperties.Lifetimes lifetimes = this.clientTokenProperties.of(CLIENT_ID);
         clients.inMemory()
-                .withClient("bravo_client")
+                .withClient(CLIENT_ID)
                 .authorizedGrantTypes("password", "authorization_code", "refresh_token", "implicit")
                 .scopes("read", "write", "trust")
-                .secret(passwordEncoder().encode("bravo_secret"))
-                .accessTokenValiditySeconds(120).//Access token is only valid for 2 minutes.
-                refreshTokenValiditySeconds(600);//Refresh token is only valid for 10 minutes.
+                .secret(this.passwordEncoder.encode("bravo_secret"))
+                .accessTokenValiditySeconds((int) lifetimes.getAccessTokenValidity().getSeconds())
+                .refreshTokenValiditySeconds((int) lifetimes.getRefreshTokenValidity().getSeconds());
     }
 
     @Override
     public void configure(AuthorizationServerEndpointsConfigurer endpoints) {
         endpoints.tokenStore(tokenStore).userApprovalHandler(userApprovalHandler)
                 .authenticationManager(authenticationManager);
+        this.accessTokenConverter.ifAvailable(endpoints::accessTokenConverter);
     }
 
     @Override
     public void configure(AuthorizationServerSecurityConfigurer oauthServer) {
-        oauthServer.realm(REALM + "/client");
+        oauthServer.realm(REALM + "/client").passwordEncoder(this.passwordEncoder);
     }
 
 
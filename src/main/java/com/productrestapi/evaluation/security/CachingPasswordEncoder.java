@@ -0,0 +1,80 @@
+package com.productrestapi.evaluation.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Remembers credentials that were verified recently, so a client or user authenticating again is checked with
+ * an HMAC instead of a deliberately slow hash. The key is the HMAC of the stored hash and the presented
+ * password under a random per-process key, so the cache holds no password and a changed password misses.
+ * Failed checks are not remembered and always pay the full hash. Size and TTL come from a Caffeine spec.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+    private final Cache<String, Boolean> verified;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, String spec) {
+        this.delegate = delegate;
+        this.verified = Caffeine.from(spec).build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return this.delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return this.delegate.matches(rawPassword, encodedPassword);
+        }
+        String digest = this.digest(rawPassword, encodedPassword);
+        if (this.verified.getIfPresent(digest) != null) {
+            return true;
+        }
+        boolean matches = this.delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            this.verified.put(digest, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return this.delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private String digest(CharSequence rawPassword, String encodedPassword) {
+        Mac mac = this.macs.get();
+        mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(mac.doFinal());
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(this.key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+}
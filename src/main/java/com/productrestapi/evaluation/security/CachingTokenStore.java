@@ -0,0 +1,103 @@
+package com.productrestapi.evaluation.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.Collection;
+
+/**
+ * Keeps the result of reading an access token, so a token presented again is not decoded and its
+ * signature not verified on every request. Expiry is still checked on every request by the token
+ * services against the cached token, so a cached token is never accepted after it expires. Every read
+ * of an authentication returns a new {@link OAuth2Authentication}: the authentication manager sets the
+ * request details on it, which must not leak into other requests made with the same token.
+ */
+public class CachingTokenStore implements TokenStore {
+
+    private final TokenStore delegate;
+    private final Cache<String, OAuth2AccessToken> accessTokens;
+    private final Cache<String, OAuth2Authentication> authentications;
+
+    public CachingTokenStore(TokenStore delegate, String spec) {
+        this.delegate = delegate;
+        this.accessTokens = Caffeine.from(spec).build();
+        this.authentications = Caffeine.from(spec).build();
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        return this.accessTokens.get(tokenValue, this.delegate::readAccessToken);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+        return this.readAuthentication(token.getValue());
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String token) {
+        OAuth2Authentication cached = this.authentications.get(token, this.delegate::readAuthentication);
+        if (cached == null) {
+            return null;
+        }
+        OAuth2Authentication copy = new OAuth2Authentication(cached.getOAuth2Request(), cached.getUserAuthentication());
+        copy.setDetails(cached.getDetails());
+        return copy;
+    }
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        this.delegate.storeAccessToken(token, authentication);
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        this.accessTokens.invalidate(token.getValue());
+        this.authentications.invalidate(token.getValue());
+        this.delegate.removeAccessToken(token);
+    }
+
+    @Override
+    public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+        this.delegate.storeRefreshToken(refreshToken, authentication);
+    }
+
+    @Override
+    public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+        return this.delegate.readRefreshToken(tokenValue);
+    }
+
+    @Override
+    public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+        return this.delegate.readAuthenticationForRefreshToken(token);
+    }
+
+    @Override
+    public void removeRefreshToken(OAuth2RefreshToken token) {
+        this.delegate.removeRefreshToken(token);
+    }
+
+    @Override
+    public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+        this.delegate.removeAccessTokenUsingRefreshToken(refreshToken);
+    }
+
+    @Override
+    public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+        return this.delegate.getAccessToken(authentication);
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(String clientId, String userName) {
+        return this.delegate.findTokensByClientIdAndUserName(clientId, userName);
+    }
+
+    @Override
+    public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+        return this.delegate.findTokensByClientId(clientId);
+    }
+}
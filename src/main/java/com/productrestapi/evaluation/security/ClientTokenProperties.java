@@ -0,0 +1,32 @@
+package com.productrestapi.evaluation.security;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token lifetimes per OAuth client, under {@code evaluation.security.clients.<client id>}. A client without
+ * an entry gets the defaults.
+ */
+@Data
+@ConfigurationProperties("evaluation.security")
+public class ClientTokenProperties {
+
+    private Map<String, Lifetimes> clients = new LinkedHashMap<>();
+
+    public Lifetimes of(String clientId) {
+        return this.clients.getOrDefault(clientId, new Lifetimes());
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class Lifetimes {
+
+        private Duration accessTokenValidity = Duration.ofMinutes(2);
+        private Duration refreshTokenValidity = Duration.ofMinutes(10);
+    }
+}
@@ -1,9 +1,23 @@
 package com.productrestapi.evaluation.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.method.MethodSecurityMetadataSource;
+import org.springframework.security.access.vote.AbstractAccessDecisionManager;
+import org.springframework.security.access.vote.AffirmativeBased;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Method security. With {@code evaluation.security.method-security: precomputed} the simple authority checks
+ * of {@code @PreAuthorize} are read once per method and decided by the {@link AuthorityVoter} instead of
+ * evaluating the expression on every call; {@code expression} evaluates every annotation as before.
+ */
 @Configuration
 @EnableGlobalMethodSecurity(
         prePostEnabled = true,
@@ -12,4 +26,28 @@ import org.springframework.security.config.annotation.method.configuration.Globa
 )
 public class MethodSecurityConfig
         extends GlobalMethodSecurityConfiguration {
+
+    private final boolean precomputed;
+    private final AuthorityIndex authorityIndex = new AuthorityIndex();
+
+    public MethodSecurityConfig(@Value("${evaluation.security.method-security:precomputed}") String mode) {
+        this.precomputed = "precomputed".equals(mode);
+    }
+
+    @Override
+    protected MethodSecurityMetadataSource customMethodSecurityMetadataSource() {
+        return this.precomputed ? new PrecomputedAuthorityMetadataSource(this.authorityIndex) : null;
+    }
+
+    @Override
+    protected AccessDecisionManager accessDecisionManager() {
+        AccessDecisionManager defaults = super.accessDecisionManager();
+        if (!this.precomputed) {
+            return defaults;
+        }
+        List<AccessDecisionVoter<?>> voters = new ArrayList<>();
+        voters.add(new AuthorityVoter(this.authorityIndex));
+        voters.addAll(((AbstractAccessDecisionManager) defaults).getDecisionVoters());
+        return new AffirmativeBased(voters);
+    }
 }
@@ -1,6 +1,9 @@
 package com.productrestapi.evaluation.security;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -9,6 +12,7 @@ import org.springframework.security.config.annotation.authentication.builders.Au
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
 import org.springframework.security.oauth2.provider.approval.ApprovalStore;
 import org.springframework.security.oauth2.provider.approval.TokenApprovalStore;
@@ -16,6 +20,8 @@ import org.springframework.security.oauth2.provider.approval.TokenStoreUserAppro
 import org.springframework.security.oauth2.provider.request.DefaultOAuth2RequestFactory;
 import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.security.oauth2.provider.token.store.InMemoryTokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 
 
 @Configuration
@@ -29,8 +35,9 @@ public class OAuth2SecurityConfiguration extends WebSecurityConfigurerAdapter {
     }
 
     @Autowired
-    public void globalUserDetails(@Lazy AuthenticationManagerBuilder auth) throws Exception {
+    public void globalUserDetails(@Lazy AuthenticationManagerBuilder auth, PasswordEncoder passwordEncoder) throws Exception {
         auth.inMemoryAuthentication()
+                .passwordEncoder(passwordEncoder)
                 .withUser("roque").password("{noop}roque").roles("PRODUCT_PRICING").and()
                 .withUser("anibal").password("{noop}anibal").roles("PRODUCT_CREATORS").and()
                 .withUser("george").password("{noop}george").roles("PRODUCT_MANAGERS");
@@ -53,9 +60,35 @@ public class OAuth2SecurityConfiguration extends WebSecurityConfigurerAdapter {
         return super.authenticationManagerBean();
     }
 
+    /**
+     * Signed, self-contained access tokens. Every node holding the same key issues and verifies
+     * tokens on its own, without a shared store. There is no default key: anyone knowing it can
+     * forge a token with any authority, so startup fails until one is set.
+     */
     @Bean
-    public TokenStore tokenStore() {
-        return new InMemoryTokenStore();
+    @ConditionalOnProperty(name = "evaluation.security.token-store", havingValue = "jwt", matchIfMissing = true)
+    public JwtAccessTokenConverter accessTokenConverter(@Value("${evaluation.security.jwt.signing-key:}") String signingKey) {
+        if (signingKey.trim().isEmpty()) {
+            throw new IllegalStateException("No JWT signing key: set JWT_SIGNING_KEY (evaluation.security.jwt.signing-key), "
+                    + "or run with the dev profile for a development key");
+        }
+        JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+        converter.setSigningKey(signingKey);
+        return converter;
+    }
+
+    /**
+     * JWT tokens behind a cache of verified tokens, or the in-memory store when
+     * {@code evaluation.security.token-store} is {@code memory}.
+     */
+    @Bean
+    public TokenStore tokenStore(ObjectProvider<JwtAccessTokenConverter> accessTokenConverter,
+                                 @Value("${evaluation.security.token-cache.spec:maximumSize=10000,expireAfterWrite=5m}") String cacheSpec) {
+        JwtAccessTokenConverter converter = accessTokenConverter.getIfAvailable();
+        if (converter == null) {
+            return new InMemoryTokenStore();
+        }
+        return new CachingTokenStore(new JwtTokenStore(converter), cacheSpec);
     }
 
     @Bean
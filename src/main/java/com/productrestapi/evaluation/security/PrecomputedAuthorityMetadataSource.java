@@ -0,0 +1,97 @@
+package com.productrestapi.evaluation.security;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.method.AbstractMethodSecurityMetadataSource;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.access.prepost.PostFilter;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.access.prepost.PreFilter;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads {@code @PreAuthorize("hasAuthority('...')")}, {@code hasAnyAuthority}, {@code hasRole} and
+ * {@code hasAnyRole} once per method into {@link RequiredAuthorities}. Methods with any other expression, or
+ * with post-invocation or filter annotations, get no attributes here and are left to the expression-based
+ * source that follows.
+ */
+public class PrecomputedAuthorityMetadataSource extends AbstractMethodSecurityMetadataSource {
+
+    private static final Pattern EXPRESSION = Pattern.compile("\\s*(hasAuthority|hasAnyAuthority|hasRole|hasAnyRole)\\((.*)\\)\\s*");
+    private static final Pattern ARGUMENT = Pattern.compile("\\s*'([^']+)'\\s*");
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final AuthorityIndex authorityIndex;
+
+    PrecomputedAuthorityMetadataSource(AuthorityIndex authorityIndex) {
+        this.authorityIndex = authorityIndex;
+    }
+
+    @Override
+    public Collection<ConfigAttribute> getAttributes(Method method, Class<?> targetClass) {
+        if (method.getDeclaringClass() == Object.class) {
+            return Collections.emptyList();
+        }
+        Method specificMethod = ClassUtils.getMostSpecificMethod(method, targetClass);
+        if (AnnotationUtils.findAnnotation(specificMethod, PostAuthorize.class) != null
+                || AnnotationUtils.findAnnotation(specificMethod, PreFilter.class) != null
+                || AnnotationUtils.findAnnotation(specificMethod, PostFilter.class) != null) {
+            return Collections.emptyList();
+        }
+        PreAuthorize preAuthorize = AnnotationUtils.findAnnotation(specificMethod, PreAuthorize.class);
+        if (preAuthorize == null) {
+            preAuthorize = AnnotationUtils.findAnnotation(specificMethod.getDeclaringClass(), PreAuthorize.class);
+        }
+        if (preAuthorize == null) {
+            return Collections.emptyList();
+        }
+        List<String> authorities = parse(preAuthorize.value());
+        Long mask = authorities == null ? null : this.authorityIndex.require(authorities);
+        if (mask == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new RequiredAuthorities(mask, preAuthorize.value()));
+    }
+
+    @Override
+    public Collection<ConfigAttribute> getAllConfigAttributes() {
+        return null;
+    }
+
+    /**
+     * The authorities, any one of which the expression requires.
+     * @return the authorities, or {@code null} when the expression is not one of the simple checks.
+     */
+    static List<String> parse(String expression) {
+        Matcher matcher = EXPRESSION.matcher(expression);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String function = matcher.group(1);
+        String[] arguments = matcher.group(2).split(",", -1);
+        if (!function.startsWith("hasAny") && arguments.length != 1) {
+            return null;
+        }
+        List<String> authorities = new ArrayList<>(arguments.length);
+        for (String argument : arguments) {
+            Matcher literal = ARGUMENT.matcher(argument);
+            if (!literal.matches()) {
+                return null;
+            }
+            String authority = literal.group(1);
+            if (function.endsWith("Role") && !authority.startsWith(ROLE_PREFIX)) {
+                authority = ROLE_PREFIX + authority;
+            }
+            authorities.add(authority);
+        }
+        return authorities;
+    }
+}
@@ -0,0 +1,44 @@
+package com.productrestapi.evaluation.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One read and one write {@link TokenBucket} per caller. The buckets live in a Caffeine map, which is striped,
+ * and buckets of callers idle for ten minutes are dropped; they would be full again anyway.
+ */
+public class RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .maximumSize(100_000)
+            .build();
+
+    private final double readsPerSecond;
+    private final int readBurst;
+    private final double writesPerSecond;
+    private final int writeBurst;
+
+    public RateLimiter(double readsPerSecond, int readBurst, double writesPerSecond, int writeBurst) {
+        this.readsPerSecond = readsPerSecond;
+        this.readBurst = readBurst;
+        this.writesPerSecond = writesPerSecond;
+        this.writeBurst = writeBurst;
+    }
+
+    /**
+     * Take a token from the read or the write budget of a caller.
+     * @param caller the key of the caller.
+     * @param write whether the request changes anything.
+     * @return 0 when the request may go on, otherwise the nanoseconds until it may be retried.
+     */
+    public long tryAcquire(String caller, boolean write) {
+        long now = System.nanoTime();
+        TokenBucket bucket = write
+                ? this.buckets.get("write:" + caller, key -> new TokenBucket(this.writesPerSecond, this.writeBurst, now))
+                : this.buckets.get("read:" + caller, key -> new TokenBucket(this.readsPerSecond, this.readBurst, now));
+        return bucket.tryAcquire(now);
+    }
+}
@@ -0,0 +1,32 @@
+package com.productrestapi.evaluation.security;
+
+import org.springframework.security.access.ConfigAttribute;
+
+/**
+ * The authorities a method requires, any one of them, as a mask of {@link AuthorityIndex}. Decided by the
+ * {@link AuthorityVoter} only; it has no attribute string, so the role voter ignores it.
+ */
+public class RequiredAuthorities implements ConfigAttribute {
+
+    private final long mask;
+    private final String expression;
+
+    RequiredAuthorities(long mask, String expression) {
+        this.mask = mask;
+        this.expression = expression;
+    }
+
+    long getMask() {
+        return this.mask;
+    }
+
+    @Override
+    public String getAttribute() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return this.expression;
+    }
+}
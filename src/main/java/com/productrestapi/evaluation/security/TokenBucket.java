@@ -0,0 +1,45 @@
+package com.productrestapi.evaluation.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept as the time at which the bucket would be full again (the generic cell rate
+ * algorithm): taking a token is one compare-and-set, and an idle bucket needs no refill.
+ */
+public class TokenBucket {
+
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param permitsPerSecond the rate the bucket refills at.
+     * @param burst the tokens the bucket holds when full.
+     * @param now the current {@link System#nanoTime()}; the bucket starts full.
+     */
+    public TokenBucket(double permitsPerSecond, int burst, long now) {
+        this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.tolerance = this.interval * (burst - 1);
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Take a token.
+     * @param now the current {@link System#nanoTime()}.
+     * @return 0 when a token was taken, otherwise the nanoseconds until the next one.
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = this.fullAt.get();
+            long start = Math.max(current, now);
+            long wait = start - now - this.tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (this.fullAt.compareAndSet(current, start + this.interval)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.productrestapi.evaluation.services;
+
+import com.productrestapi.evaluation.exceptions.BulkRequestTooLargeException;
+import com.productrestapi.evaluation.model.response.BulkItemResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes bulk requests chunk by chunk. Every chunk runs in its own transaction and is flushed
+ * and cleared at the end, so Hibernate sends it as JDBC batches ({@code hibernate.jdbc.batch_size})
+ * and the persistence context does not grow with the size of the request. A chunk that fails
+ * to commit is rolled back and all its items are reported as failed.
+ */
+@Component
+public class BulkWriter {
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public BulkWriter(PlatformTransactionManager transactionManager,
+                      EntityManager entityManager,
+                      Validator validator,
+                      @Value("${evaluation.bulk.chunk-size:500}") int chunkSize,
+                      @Value("${evaluation.bulk.max-items:10000}") int maxItems) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Write all the items.
+     * @param items the items of the bulk request.
+     * @param chunkWriter writes one chunk, returning one result per item.
+     * @return {@link List<BulkItemResult>} with one result per item, in request order.
+     */
+    public <T> List<BulkItemResult> write(List<T> items, ChunkWriter<T> chunkWriter) {
+        if (items.size() > this.maxItems) {
+            throw new BulkRequestTooLargeException(items.size(), this.maxItems);
+        }
+        List<BulkItemResult> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += this.chunkSize) {
+            int offset = from;
+            int to = Math.min(from + this.chunkSize, items.size());
+            List<T> chunk = items.subList(from, to);
+            try {
+                results.addAll(this.transactionTemplate.execute(status -> {
+                    List<BulkItemResult> chunkResults = chunkWriter.write(chunk, offset);
+                    this.entityManager.flush();
+                    this.entityManager.clear();
+                    return chunkResults;
+                }));
+            } catch (RuntimeException e) {
+                List<String> errors = Collections.singletonList("Chunk rolled back: " + e.getMessage());
+                for (int index = from; index < to; index++) {
+                    results.add(BulkItemResult.failed(index, errors));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Bean validation of one item.
+     * @return the violation messages, empty when the item is valid.
+     */
+    public List<String> validate(Object item) {
+        if (item == null) {
+            return Collections.singletonList("Item must not be null");
+        }
+        return this.validator.validate(item).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .collect(Collectors.toList());
+    }
+
+    @FunctionalInterface
+    public interface ChunkWriter<T> {
+
+        List<BulkItemResult> write(List<T> chunk, int offset);
+    }
+}
@@ -0,0 +1,115 @@
+package com.productrestapi.evaluation.services;
+
+import com.productrestapi.evaluation.config.CacheConfiguration;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Precise invalidation of the product and price caches. A cached product embeds its prices
+ * and a cached price embeds its product, so a write on one side evicts the related entries too.
+ * Inside a transaction the eviction is deferred until after commit, so a concurrent read cannot
+ * put the old row back in the cache. Every eviction also moves the catalogue generation, for the
+ * caches that are keyed by the state of the whole catalogue, and the generation of the evicted entry,
+ * for the ones keyed by a single product or price. Entry generations are striped by key, so they take
+ * fixed memory; a write also moves the entries that share its stripe.
+ */
+@Component
+public class CatalogCache {
+
+    private static final int STRIPES = 4096;
+
+    private final CacheManager cacheManager;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, AtomicLongArray> entryGenerations = new HashMap<>();
+
+    public CatalogCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+        this.entryGenerations.put(CacheConfiguration.PRODUCTS, new AtomicLongArray(STRIPES));
+        this.entryGenerations.put(CacheConfiguration.PRICES, new AtomicLongArray(STRIPES));
+    }
+
+    /**
+     * The number of committed evictions so far.
+     */
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * The number of committed evictions of the given entry, and of the entries in its stripe.
+     * @param cacheName the cache of the entry, null for the generation of the whole catalogue.
+     * @param key the id of the entry.
+     */
+    public long getGeneration(String cacheName, Object key) {
+        AtomicLongArray stripes = cacheName == null || key == null ? null : this.entryGenerations.get(cacheName);
+        return stripes == null ? this.generation.get() : stripes.get(stripe(key));
+    }
+
+    public void evictProduct(long productId) {
+        this.evict(CacheConfiguration.PRODUCTS, productId);
+    }
+
+    public void evictPrice(Long priceId) {
+        this.evict(CacheConfiguration.PRICES, priceId);
+    }
+
+    /**
+     * Evict a price together with the product that embeds it.
+     */
+    public void evictPrice(Price price) {
+        this.evictPrice(price.getId());
+        if (price.getProduct() != null) {
+            this.evictProduct(price.getProduct().getId());
+        }
+    }
+
+    /**
+     * Evict a product together with the prices that embed it.
+     */
+    public void evictProduct(Product product) {
+        this.evictProduct(product.getId());
+        if (product.getPrices() != null) {
+            product.getPrices().forEach(price -> this.evictPrice(price.getId()));
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = this.cacheManager.getCache(cacheName);
+        if (key == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    CatalogCache.this.evictNow(cacheName, cache, key);
+                }
+            });
+        } else {
+            this.evictNow(cacheName, cache, key);
+        }
+    }
+
+    private void evictNow(String cacheName, Cache cache, Object key) {
+        if (cache != null) {
+            cache.evict(key);
+        }
+        this.entryGenerations.get(cacheName).incrementAndGet(stripe(key));
+        this.generation.incrementAndGet();
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,120 @@
+package com.productrestapi.evaluation.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Writes the catalogue read from {@link com.productrestapi.evaluation.repositories.ProductRepository#streamCatalogue()}.
+ * The rows come ordered by product, so each product is written as soon as its last price has been
+ * read and the persistence context is cleared right after: memory stays flat whatever the catalogue size.
+ */
+@Component
+public class CatalogExporter {
+
+    private static final String CSV_HEADER = "product_id,description,product_status,creation_date,modification_date,"
+            + "price_id,amount,price_status,price_creation_date,price_modification_date\n";
+
+    private final ObjectWriter objectWriter;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public CatalogExporter(ObjectMapper objectMapper, EntityManager entityManager) {
+        this.objectMapper = objectMapper;
+        this.objectWriter = objectMapper.writerFor(Product.class);
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * One JSON document per product, with its prices embedded.
+     */
+    public void writeNdjson(Stream<Object[]> rows, OutputStream out) throws IOException {
+        JsonGenerator generator = this.objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        Product current = null;
+        Set<Price> prices = new LinkedHashSet<>();
+        Iterator<Object[]> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            Object[] row = iterator.next();
+            Product product = (Product) row[0];
+            if (current != null && current.getId() != product.getId()) {
+                this.writeProduct(generator, current, prices);
+                prices = new LinkedHashSet<>();
+            }
+            current = product;
+            if (row[1] != null) {
+                prices.add((Price) row[1]);
+            }
+        }
+        if (current != null) {
+            this.writeProduct(generator, current, prices);
+        }
+        generator.flush();
+    }
+
+    /**
+     * One line per price, repeating the product columns. Products without prices get one line with empty price columns.
+     */
+    public void writeCsv(Stream<Object[]> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        long lastProductId = 0;
+        Iterator<Object[]> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            Object[] row = iterator.next();
+            Product product = (Product) row[0];
+            Price price = (Price) row[1];
+            if (lastProductId != 0 && lastProductId != product.getId()) {
+                this.entityManager.clear();
+            }
+            lastProductId = product.getId();
+            writer.write(String.join(",",
+                    String.valueOf(product.getId()),
+                    csv(product.getDescription()),
+                    csv(product.getStatus()),
+                    csv(product.getCreationDate()),
+                    csv(product.getModificationDate()),
+                    price == null ? "" : String.valueOf(price.getId()),
+                    price == null ? "" : String.valueOf(price.getPrice()),
+                    price == null ? "" : csv(price.getStatus()),
+                    price == null ? "" : csv(price.getCreationDate()),
+                    price == null ? "" : csv(price.getModificationDate())));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void writeProduct(JsonGenerator generator, Product product, Set<Price> prices) throws IOException {
+        this.entityManager.clear();
+        product.setPrices(prices);
+        this.objectWriter.writeValue(generator, product);
+        generator.writeRaw('\n');
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,279 @@
+package com.productrestapi.evaluation.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.model.ChangeEvent;
+import com.productrestapi.evaluation.repositories.ChangeEventRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Delivers the committed {@link ChangeEvent}s to the Server-Sent Events subscribers. Every run takes the
+ * events written since the previous one, gives them the next sequences in one transaction and sends them
+ * as one batch. Subscribers that resume from an older sequence are first fed from the table, one batch per
+ * run, until they catch up. The events are written to the subscribers on a small pool, at most one send per
+ * subscriber at a time: a subscriber still busy with an earlier send is skipped and catches up from the table
+ * later, and one whose send takes longer than {@code evaluation.changes.send-timeout} is disconnected, so a
+ * slow client never holds up the others. With several nodes on one database only one numbers the events; the
+ * others run with {@code evaluation.changes.dispatch.enabled: false} and stream the events it numbered, read
+ * back from the table.
+ */
+@Component
+public class ChangeDispatcher implements DisposableBean {
+
+    private final ChangeEventRepository changeEventRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private final boolean dispatchEnabled;
+    private final long sendTimeoutNanos;
+    private final ThreadPoolTaskExecutor sender;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private long head = -1;
+
+    public ChangeDispatcher(ChangeEventRepository changeEventRepository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${evaluation.changes.batch-size:500}") int batchSize,
+                            @Value("${evaluation.changes.retention:P7D}") Duration retention,
+                            @Value("${evaluation.changes.dispatch.enabled:true}") boolean dispatchEnabled,
+                            @Value("${evaluation.changes.send-threads:4}") int sendThreads,
+                            @Value("${evaluation.changes.send-timeout:10s}") Duration sendTimeout) {
+        this.changeEventRepository = changeEventRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.dispatchEnabled = dispatchEnabled;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.sender = new ThreadPoolTaskExecutor();
+        this.sender.setThreadNamePrefix("change-send-");
+        this.sender.setCorePoolSize(sendThreads);
+        this.sender.setMaxPoolSize(sendThreads);
+        this.sender.initialize();
+    }
+
+    /**
+     * Subscribe to the changes after the given sequence.
+     * @param after the last sequence already received, null to receive only new changes.
+     * @param timeout the emitter timeout in milliseconds, null for the default async request timeout.
+     * @return {@link SseEmitter} the event stream.
+     */
+    public SseEmitter subscribe(Long after, Long timeout) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        long head = this.getHead();
+        Subscriber subscriber = new Subscriber(emitter, after == null ? head : Math.min(after, head));
+        emitter.onCompletion(() -> this.subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> this.subscribers.remove(subscriber));
+        try {
+            // sent right away, so the client sees the stream open before the first change
+            emitter.send(SseEmitter.event().comment("subscribed after " + subscriber.lastSequence));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.subscribers.add(subscriber);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${evaluation.changes.poll-interval-ms:200}")
+    public void dispatch() {
+        long previousHead = this.getHead();
+        List<ChangeEvent> batch = this.transactionTemplate.execute(status -> this.dispatchEnabled
+                ? this.assignSequences(previousHead)
+                // numbered by the dispatching node, committed a batch at a time, so without gaps
+                : this.changeEventRepository.findBySequenceGreaterThanOrderBySequenceAsc(
+                        previousHead, PageRequest.of(0, this.batchSize)));
+        if (!batch.isEmpty()) {
+            // published only once the sequences are committed
+            synchronized (this) {
+                this.head = batch.get(batch.size() - 1).getSequence();
+            }
+        }
+        List<Event> events = null;
+        long now = System.nanoTime();
+        for (Subscriber subscriber : this.subscribers) {
+            if (subscriber.sending) {
+                if (now - subscriber.sendingSince > this.sendTimeoutNanos) {
+                    this.disconnect(subscriber);
+                }
+                continue;
+            }
+            if (subscriber.lastSequence >= previousHead) {
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                if (events == null) {
+                    events = this.toEvents(batch);
+                }
+                this.submit(subscriber, events);
+            } else {
+                // behind: replay from the table, the new batch follows once it catches up
+                List<ChangeEvent> replay = this.changeEventRepository.findBySequenceGreaterThanOrderBySequenceAsc(
+                        subscriber.lastSequence, PageRequest.of(0, this.batchSize));
+                this.submit(subscriber, this.toEvents(replay));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.sender.shutdown();
+    }
+
+    /**
+     * Delete the dispatched events older than {@code evaluation.changes.retention}; consumers that resume
+     * from a deleted sequence continue with the oldest one kept.
+     */
+    @Scheduled(fixedDelayString = "${evaluation.changes.purge-interval-ms:3600000}")
+    public void purge() {
+        if (!this.dispatchEnabled) {
+            return;
+        }
+        this.transactionTemplate.execute(status -> this.changeEventRepository.deleteDispatchedBefore(
+                Instant.now().minus(this.retention), this.getHead()));
+    }
+
+    private List<ChangeEvent> assignSequences(long previousHead) {
+        List<ChangeEvent> batch = this.changeEventRepository.findBySequenceIsNullOrderByIdAsc(
+                PageRequest.of(0, this.batchSize));
+        long sequence = previousHead;
+        for (ChangeEvent event : batch) {
+            event.setSequence(++sequence);
+        }
+        return batch;
+    }
+
+    /**
+     * Serialize the events once, whatever the number of subscribers receiving them.
+     */
+    private List<Event> toEvents(List<ChangeEvent> changes) {
+        List<Event> events = new ArrayList<>(changes.size());
+        try {
+            for (ChangeEvent change : changes) {
+                events.add(new Event(change.getSequence(),
+                        change.getEntityType().name().toLowerCase(Locale.ROOT) + "."
+                                + change.getOperation().name().toLowerCase(Locale.ROOT),
+                        this.objectMapper.writeValueAsString(change)));
+            }
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return events;
+    }
+
+    private void submit(Subscriber subscriber, List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        subscriber.sendingSince = System.nanoTime();
+        subscriber.sending = true;
+        try {
+            this.sender.execute(() -> {
+                try {
+                    this.send(subscriber, events);
+                } finally {
+                    subscriber.sending = false;
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // shutting down
+            subscriber.sending = false;
+        }
+    }
+
+    private void send(Subscriber subscriber, List<Event> events) {
+        try {
+            for (Event event : events) {
+                if (subscriber.disconnected) {
+                    throw new IllegalStateException(new TimeoutException("Send timeout exceeded"));
+                }
+                if (event.sequence <= subscriber.lastSequence) {
+                    continue;
+                }
+                subscriber.emitter.send(event.toBuilder());
+                subscriber.lastSequence = event.sequence;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // the client went away, the send timed out or the emitter is already complete
+            this.subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Drop a subscriber stuck in a send. Its emitter is completed by the send itself once the write returns or
+     * fails: the emitter is locked while it writes, so completing it here would block the dispatcher too.
+     */
+    private void disconnect(Subscriber subscriber) {
+        subscriber.disconnected = true;
+        this.subscribers.remove(subscriber);
+    }
+
+    private synchronized long getHead() {
+        if (this.head < 0) {
+            // in a read-write transaction, on the primary: a lagging replica would hand out used sequences
+            Long max = this.transactionTemplate.execute(status -> this.changeEventRepository.findMaxSequence());
+            this.head = max == null ? 0 : max;
+        }
+        return this.head;
+    }
+
+    /**
+     * A subscriber is written by one send at a time; the dispatcher reads its state between sends.
+     */
+    private static final class Subscriber {
+
+        final SseEmitter emitter;
+        volatile long lastSequence;
+        volatile boolean sending;
+        volatile long sendingSince;
+        volatile boolean disconnected;
+
+        Subscriber(SseEmitter emitter, long lastSequence) {
+            this.emitter = emitter;
+            this.lastSequence = lastSequence;
+        }
+    }
+
+    /**
+     * A serialized change, shared by the sends to every subscriber. Each send gets its own builder, which
+     * is consumed when the emitter writes it.
+     */
+    private static final class Event {
+
+        final long sequence;
+        final String name;
+        final String data;
+
+        Event(long sequence, String name, String data) {
+            this.sequence = sequence;
+            this.name = name;
+            this.data = data;
+        }
+
+        SseEmitter.SseEventBuilder toBuilder() {
+            return SseEmitter.event().id(String.valueOf(this.sequence)).name(this.name).data(this.data);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.productrestapi.evaluation.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.model.ChangeEvent;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.repositories.ChangeEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records product and price changes as {@link ChangeEvent} rows in the transaction of the change, so an
+ * event is committed or rolled back together with it; {@link ChangeDispatcher} delivers the committed events.
+ * The events of a transaction are written just before it commits, after one flush, so the payloads carry
+ * the final state (versions included) and the inserts go in the same JDBC batches as the rest of the flush.
+ */
+@Component
+public class ChangeOutbox {
+
+    private final ChangeEventRepository changeEventRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ChangeOutbox(ChangeEventRepository changeEventRepository, EntityManager entityManager,
+                        ObjectMapper objectMapper) {
+        this.changeEventRepository = changeEventRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProduct(ChangeEvent.Operation operation, Product product) {
+        this.record(new ChangeEvent()
+                .setEntityType(ChangeEvent.EntityType.PRODUCT)
+                .setEntityId(product.getId())
+                .setProductId(product.getId())
+                .setOperation(operation), product);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPrice(ChangeEvent.Operation operation, Price price) {
+        this.record(new ChangeEvent()
+                .setEntityType(ChangeEvent.EntityType.PRICE)
+                .setEntityId(price.getId())
+                .setProductId(price.getProduct().getId())
+                .setOperation(operation), price);
+    }
+
+    private void record(ChangeEvent event, Object entity) {
+        event.setCreationDate(Instant.now());
+        PendingEvents pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingEvents.class::isInstance)
+                .map(PendingEvents.class::cast)
+                .findFirst()
+                .orElse(null);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+        pending.entities.add(event.getOperation() == ChangeEvent.Operation.DELETED ? null : entity);
+    }
+
+    /**
+     * Events of one transaction, written when it is about to commit.
+     */
+    private final class PendingEvents extends TransactionSynchronizationAdapter {
+
+        final List<ChangeEvent> events = new ArrayList<>();
+        final List<Object> entities = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            entityManager.flush();
+            try {
+                for (int i = 0; i < this.events.size(); i++) {
+                    Object entity = this.entities.get(i);
+                    this.events.get(i).setPayload(entity == null ? null : objectMapper.writeValueAsString(entity));
+                }
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            changeEventRepository.saveAll(this.events);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.productrestapi.evaluation.services;
+
+import com.productrestapi.evaluation.exceptions.UnsupportedExportFormatException;
+import com.productrestapi.evaluation.utils.NdjsonUtils;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+
+    NDJSON(MediaType.parseMediaType(NdjsonUtils.MEDIA_TYPE)),
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static ExportFormat of(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedExportFormatException(format);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.productrestapi.evaluation.services;
+
+import com.productrestapi.evaluation.exceptions.TooManyIdsException;
+import com.productrestapi.evaluation.model.response.MultiGetResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Resolves many ids with one IN query per chunk instead of one query per id. Repeated ids are resolved
+ * once; the result keeps the order of the request and lists the ids that were not found.
+ */
+@Component
+public class MultiGetReader {
+
+    private final int chunkSize;
+    private final int maxIds;
+
+    public MultiGetReader(@Value("${evaluation.multi-get.chunk-size:500}") int chunkSize,
+                          @Value("${evaluation.multi-get.max-ids:1000}") int maxIds) {
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * Read all the ids.
+     * @param ids the requested ids, in request order.
+     * @param loader loads the entities of one chunk of ids, in any order.
+     * @param idOf the id of a loaded entity.
+     * @return {@link MultiGetResult} with the entities found, in request order, and the missing ids.
+     */
+    public <T> MultiGetResult<T> read(List<Long> ids, Function<List<Long>, List<T>> loader, ToLongFunction<T> idOf) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.size() > this.maxIds) {
+            throw new TooManyIdsException(distinct.size(), this.maxIds);
+        }
+        Map<Long, T> found = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += this.chunkSize) {
+            for (T item : loader.apply(distinct.subList(from, Math.min(from + this.chunkSize, distinct.size())))) {
+                found.put(idOf.applyAsLong(item), item);
+            }
+        }
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinct) {
+            T item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGetResult<T>().setItems(items).setMissing(missing);
+    }
+}
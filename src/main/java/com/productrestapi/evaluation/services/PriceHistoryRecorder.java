@@ -0,0 +1,129 @@
+package com.productrestapi.evaluation.services;
+
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.PriceHistory;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.repositories.PriceHistoryRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link PriceHistory} in step with the prices. Like {@link ChangeOutbox} it collects the changes of a
+ * transaction and writes them just before it commits: the current versions of all the changed prices are
+ * closed with one update per instant, and one new version is appended per price still alive, with its final
+ * state. Only the last change of a price within a transaction is kept, the others were never visible.
+ */
+@Component
+public class PriceHistoryRecorder {
+
+    private static final int IN_LIST_SIZE = 1000;
+
+    private final PriceHistoryRepository priceHistoryRepository;
+
+    public PriceHistoryRecorder(PriceHistoryRepository priceHistoryRepository) {
+        this.priceHistoryRepository = priceHistoryRepository;
+    }
+
+    /**
+     * Record a created or updated price.
+     * @param price the price, already persisted and in its final state when the transaction commits.
+     * @param at the instant of the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Price price, Instant at) {
+        this.pending().changes.put(price.getId(), new Change(price, at, false));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(Price price, Instant at) {
+        this.pending().changes.put(price.getId(), new Change(price, at, true));
+    }
+
+    /**
+     * Record the prices of a new product.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProduct(Product product, Instant at) {
+        if (product.getPrices() != null) {
+            product.getPrices().forEach(price -> this.record(price, at));
+        }
+    }
+
+    /**
+     * Record the deletion of a product together with its prices.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProductDeletion(Product product, Instant at) {
+        if (product.getPrices() != null) {
+            product.getPrices().forEach(price -> this.recordDeletion(price, at));
+        }
+    }
+
+    private PendingChanges pending() {
+        PendingChanges pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingChanges.class::isInstance)
+                .map(PendingChanges.class::cast)
+                .findFirst()
+                .orElse(null);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private static final class Change {
+
+        final Price price;
+        final Instant at;
+        final boolean deleted;
+
+        Change(Price price, Instant at, boolean deleted) {
+            this.price = price;
+            this.at = at;
+            this.deleted = deleted;
+        }
+    }
+
+    /**
+     * Changes of one transaction, keyed by price, written when it is about to commit.
+     */
+    private final class PendingChanges extends TransactionSynchronizationAdapter {
+
+        final Map<Long, Change> changes = new LinkedHashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            Map<Instant, List<Long>> closing = this.changes.values().stream()
+                    .collect(Collectors.groupingBy(change -> change.at, LinkedHashMap::new,
+                            Collectors.mapping(change -> change.price.getId(), Collectors.toList())));
+            closing.forEach((at, priceIds) -> {
+                for (int from = 0; from < priceIds.size(); from += IN_LIST_SIZE) {
+                    priceHistoryRepository.close(priceIds.subList(from, Math.min(from + IN_LIST_SIZE, priceIds.size())), at);
+                }
+            });
+            List<PriceHistory> versions = new ArrayList<>();
+            for (Change change : this.changes.values()) {
+                if (!change.deleted) {
+                    versions.add(new PriceHistory()
+                            .setPriceId(change.price.getId())
+                            .setProductId(change.price.getProduct().getId())
+                            .setPrice(change.price.getPrice())
+                            .setStatus(change.price.getStatus())
+                            .setValidFrom(change.at));
+                }
+            }
+            priceHistoryRepository.saveAll(versions);
+        }
+    }
+}
@@ -0,0 +1,558 @@
+package com.productrestapi.evaluation.services;
+
+import com.productrestapi.evaluation.config.TransactionRoutingDataSource;
+import com.productrestapi.evaluation.exceptions.NoActivePriceException;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.response.CurrentPrice;
+import com.productrestapi.evaluation.repositories.PriceRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * In-process read model of the prices for the hot pricing lookups: the current active price of a product
+ * and the products priced within a range. Every price is kept in columns of primitive arrays sorted by amount,
+ * cut into chunks of about 512 rows, so a range lookup is a binary search without Hibernate and without
+ * allocating per row; the current price of every product is kept in its own slot.
+ * <p>
+ * The chunks are never modified: a write copies the chunk it lands in and the array of chunks, and publishes
+ * them as a new snapshot, so readers need no lock and a write costs O(chunk size + prices / chunk size) rather
+ * than a copy of the catalogue. Writers still take turns on the index, for that short copy only. It is loaded
+ * at startup and kept current by the services; inside a transaction the changes are collected and applied
+ * once after commit, like the cache evictions of {@link CatalogCache}. Disabled with
+ * {@code evaluation.price-index.enabled: false}.
+ */
+@Component
+public class PriceIndex implements SmartInitializingSingleton {
+
+    /**
+     * Status of the prices that can be the current price of a product.
+     */
+    public static final String ACTIVE = "A";
+
+    private static final int CHUNK_SIZE = 512;
+
+    private final PriceRepository priceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    // read without locking
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile ConcurrentMap<Long, Current> currentPrices = new ConcurrentHashMap<>();
+
+    // where each price is and the active prices of each product, for the writers only
+    private Map<Long, Row> rows = new HashMap<>();
+    private Map<Long, NavigableMap<Long, Double>> activePrices = new HashMap<>();
+
+    public PriceIndex(PriceRepository priceRepository, PlatformTransactionManager transactionManager,
+                      @Value("${evaluation.price-index.enabled:true}") boolean enabled) {
+        this.priceRepository = priceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (this.enabled) {
+            this.rebuild();
+        }
+    }
+
+    /**
+     * Load the index again from the database, discarding the current one.
+     */
+    public synchronized void rebuild() {
+        List<Change> changes = TransactionRoutingDataSource.readFromPrimary(() -> this.transactionTemplate.execute(status -> {
+            try (Stream<Object[]> stream = this.priceRepository.streamIndexRows()) {
+                List<Change> rows = new ArrayList<>();
+                stream.filter(row -> row[1] != null)
+                        .forEach(row -> rows.add(new Change((Long) row[0], (Long) row[1], (Double) row[2], (String) row[3])));
+                return rows;
+            }
+        }));
+        changes.sort(Comparator.<Change>comparingDouble(change -> change.amount).thenComparingLong(change -> change.priceId));
+
+        String[] names = new String[0];
+        Map<Long, Row> newRows = new HashMap<>(changes.size() * 4 / 3 + 1);
+        Map<Long, NavigableMap<Long, Double>> newActivePrices = new HashMap<>();
+        ConcurrentMap<Long, Current> newCurrentPrices = new ConcurrentHashMap<>();
+        Chunk[] chunks = new Chunk[(changes.size() + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        for (int c = 0; c < chunks.length; c++) {
+            List<Change> part = changes.subList(c * CHUNK_SIZE, Math.min(changes.size(), (c + 1) * CHUNK_SIZE));
+            Chunk chunk = new Chunk(part.size());
+            for (int i = 0; i < part.size(); i++) {
+                Change change = part.get(i);
+                names = withStatus(names, change.status);
+                chunk.set(i, change.amount, change.priceId, change.productId, statusCode(names, change.status));
+                newRows.put(change.priceId, new Row(change.productId, change.amount, ACTIVE.equals(change.status)));
+                if (ACTIVE.equals(change.status)) {
+                    newActivePrices.computeIfAbsent(change.productId, productId -> new TreeMap<>()).put(change.priceId, change.amount);
+                }
+            }
+            chunks[c] = chunk;
+        }
+        newActivePrices.forEach((productId, prices) ->
+                newCurrentPrices.put(productId, new Current(prices.lastKey(), prices.lastEntry().getValue())));
+
+        this.rows = newRows;
+        this.activePrices = newActivePrices;
+        this.snapshot = new Snapshot(chunks, names, changes.size());
+        this.currentPrices = newCurrentPrices;
+    }
+
+    /**
+     * Get the current price of a product, the active price with the highest id.
+     * @param productId the unique product id.
+     * @return {@link CurrentPrice} with the price.
+     */
+    public CurrentPrice getCurrentPrice(long productId) {
+        Current current = this.currentPrices.get(productId);
+        if (current == null) {
+            throw new NoActivePriceException(productId);
+        }
+        return new CurrentPrice()
+                .setProductId(productId)
+                .setPriceId(current.priceId)
+                .setPrice(current.amount);
+    }
+
+    /**
+     * Get the products having a price with the given status within the range.
+     * @param minAmount the lowest amount, inclusive.
+     * @param maxAmount the highest amount, inclusive.
+     * @param status the price status.
+     * @return the distinct product ids, ascending.
+     */
+    public long[] getProductIdsPricedBetween(double minAmount, double maxAmount, String status) {
+        Snapshot current = this.snapshot;
+        int code = statusCode(current.statusNames, status);
+        if (code < 0 || minAmount > maxAmount) {
+            return new long[0];
+        }
+        long[] ids = new long[16];
+        int count = 0;
+        for (int c = current.firstChunkReaching(minAmount); c < current.chunks.length; c++) {
+            Chunk chunk = current.chunks[c];
+            int i = lowerBound(chunk.amounts, chunk.amounts.length, minAmount, false);
+            for (; i < chunk.amounts.length && chunk.amounts[i] <= maxAmount; i++) {
+                if (chunk.statuses[i] == code) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = chunk.productIds[i];
+                }
+            }
+            if (i < chunk.amounts.length) {
+                break;
+            }
+        }
+        Arrays.sort(ids, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || ids[i] != ids[distinct - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    public int size() {
+        return this.snapshot.size;
+    }
+
+    /**
+     * Record a created or updated price.
+     */
+    public void put(Price price) {
+        this.change(new Change(price.getId(), price.getProduct().getId(), price.getPrice(), price.getStatus()));
+    }
+
+    public void remove(Price price) {
+        this.change(new Change(price.getId()));
+    }
+
+    /**
+     * Record the removal of a product together with its prices.
+     */
+    public void removeProduct(Product product) {
+        if (product.getPrices() != null) {
+            product.getPrices().forEach(this::remove);
+        }
+    }
+
+    /**
+     * Record the prices of a new product.
+     */
+    public void putProduct(Product product) {
+        if (product.getPrices() != null) {
+            product.getPrices().forEach(this::put);
+        }
+    }
+
+    private void change(Change change) {
+        if (!this.enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.apply(Collections.singletonList(change));
+            return;
+        }
+        // synchronizations, unlike bound resources, are suspended with their transaction (REQUIRES_NEW chunks)
+        PendingChanges pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingChanges.class::isInstance)
+                .map(PendingChanges.class::cast)
+                .findFirst()
+                .orElse(null);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        // the last change of a price in the transaction wins
+        pending.changes.remove(change.priceId);
+        pending.changes.put(change.priceId, change);
+    }
+
+    private synchronized void apply(Collection<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Snapshot current = this.snapshot;
+        List<Chunk> chunks = new ArrayList<>(Arrays.asList(current.chunks));
+        String[] names = current.statusNames;
+        int size = current.size;
+        Set<Long> touched = new HashSet<>();
+        for (Change change : changes) {
+            Row old = this.rows.remove(change.priceId);
+            if (old != null) {
+                int c = chunkOf(chunks, old.amount, change.priceId);
+                Chunk chunk = chunks.get(c);
+                chunks.set(c, chunk.without(chunk.indexOf(old.amount, change.priceId)));
+                rebalance(chunks, c);
+                size--;
+                if (old.active) {
+                    this.activePrices.get(old.productId).remove(change.priceId);
+                }
+                touched.add(old.productId);
+            }
+            if (!change.removed) {
+                names = withStatus(names, change.status);
+                if (chunks.isEmpty()) {
+                    chunks.add(new Chunk(0));
+                }
+                int c = chunkOf(chunks, change.amount, change.priceId);
+                Chunk chunk = chunks.get(c);
+                chunks.set(c, chunk.with(-chunk.indexOf(change.amount, change.priceId) - 1, change.amount, change.priceId,
+                        change.productId, statusCode(names, change.status)));
+                rebalance(chunks, c);
+                size++;
+                boolean active = ACTIVE.equals(change.status);
+                this.rows.put(change.priceId, new Row(change.productId, change.amount, active));
+                if (active) {
+                    this.activePrices.computeIfAbsent(change.productId, productId -> new TreeMap<>()).put(change.priceId, change.amount);
+                }
+                touched.add(change.productId);
+            }
+        }
+        this.snapshot = new Snapshot(chunks.toArray(new Chunk[0]), names, size);
+
+        for (Long productId : touched) {
+            NavigableMap<Long, Double> prices = this.activePrices.get(productId);
+            if (prices == null || prices.isEmpty()) {
+                this.activePrices.remove(productId);
+                this.currentPrices.remove(productId);
+            } else {
+                this.currentPrices.put(productId, new Current(prices.lastKey(), prices.lastEntry().getValue()));
+            }
+        }
+    }
+
+    /**
+     * The chunk a price belongs in: the last one starting at or before it, the first one when none does.
+     */
+    private static int chunkOf(List<Chunk> chunks, double amount, long priceId) {
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            Chunk chunk = chunks.get(middle);
+            if (compare(chunk.amounts[0], chunk.priceIds[0], amount, priceId) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Keep the chunk at the given position between a quarter and twice {@link #CHUNK_SIZE} rows: split it
+     * when it grew past that, merge it into a neighbour when it shrank below.
+     */
+    private static void rebalance(List<Chunk> chunks, int c) {
+        Chunk chunk = chunks.get(c);
+        if (chunk.size() > 2 * CHUNK_SIZE) {
+            int half = chunk.size() / 2;
+            chunks.set(c, chunk.slice(0, half));
+            chunks.add(c + 1, chunk.slice(half, chunk.size()));
+        } else if (chunk.size() == 0) {
+            chunks.remove(c);
+        } else if (chunk.size() < CHUNK_SIZE / 4 && chunks.size() > 1) {
+            int left = c + 1 < chunks.size() ? c : c - 1;
+            chunks.set(left, Chunk.concat(chunks.get(left), chunks.get(left + 1)));
+            chunks.remove(left + 1);
+            rebalance(chunks, left);
+        }
+    }
+
+    private static String[] withStatus(String[] names, String status) {
+        if (status == null || statusCode(names, status) >= 0) {
+            return names;
+        }
+        if (names.length == Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many price statuses to index");
+        }
+        String[] extended = Arrays.copyOf(names, names.length + 1);
+        extended[names.length] = status;
+        return extended;
+    }
+
+    private static byte statusCode(String[] names, String status) {
+        for (byte i = 0; i < names.length; i++) {
+            if (names[i].equals(status)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int compare(double amount, long priceId, double otherAmount, long otherPriceId) {
+        int byAmount = Double.compare(amount, otherAmount);
+        return byAmount != 0 ? byAmount : Long.compare(priceId, otherPriceId);
+    }
+
+    /**
+     * First position whose amount is not below the given one, or above it when {@code inclusive}.
+     */
+    private static int lowerBound(double[] amounts, int size, double amount, boolean inclusive) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (amounts[middle] < amount || (inclusive && amounts[middle] == amount)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Changes of one transaction, applied together once it commits.
+     */
+    private final class PendingChanges extends TransactionSynchronizationAdapter {
+
+        final Map<Long, Change> changes = new LinkedHashMap<>();
+
+        @Override
+        public void afterCommit() {
+            apply(this.changes.values());
+        }
+    }
+
+    /**
+     * A created or updated price, or the removal of a price.
+     */
+    private static final class Change {
+
+        final long priceId;
+        final long productId;
+        final double amount;
+        final String status;
+        final boolean removed;
+
+        Change(long priceId, long productId, double amount, String status) {
+            this.priceId = priceId;
+            this.productId = productId;
+            this.amount = amount;
+            this.status = status;
+            this.removed = false;
+        }
+
+        Change(long priceId) {
+            this.priceId = priceId;
+            this.productId = 0;
+            this.amount = 0;
+            this.status = null;
+            this.removed = true;
+        }
+    }
+
+    /**
+     * Where a price is in the chunks, and whether it counts for the current price of its product.
+     */
+    private static final class Row {
+
+        final long productId;
+        final double amount;
+        final boolean active;
+
+        Row(long productId, double amount, boolean active) {
+            this.productId = productId;
+            this.amount = amount;
+            this.active = active;
+        }
+    }
+
+    private static final class Current {
+
+        final long priceId;
+        final double amount;
+
+        Current(long priceId, double amount) {
+            this.priceId = priceId;
+            this.amount = amount;
+        }
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new Chunk[0], new String[0], 0);
+
+        // every price, sorted by amount and then by price id
+        final Chunk[] chunks;
+        final String[] statusNames;
+        final int size;
+
+        Snapshot(Chunk[] chunks, String[] statusNames, int size) {
+            this.chunks = chunks;
+            this.statusNames = statusNames;
+            this.size = size;
+        }
+
+        /**
+         * First chunk whose last amount is not below the given one.
+         */
+        int firstChunkReaching(double amount) {
+            int low = 0;
+            int high = this.chunks.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                double[] amounts = this.chunks[middle].amounts;
+                if (amounts[amounts.length - 1] < amount) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Consecutive prices in amount order. Only modified while it is being built.
+     */
+    private static final class Chunk {
+
+        final double[] amounts;
+        final long[] priceIds;
+        final long[] productIds;
+        final byte[] statuses;
+
+        Chunk(int size) {
+            this.amounts = new double[size];
+            this.priceIds = new long[size];
+            this.productIds = new long[size];
+            this.statuses = new byte[size];
+        }
+
+        int size() {
+            return this.amounts.length;
+        }
+
+        void set(int i, double amount, long priceId, long productId, byte status) {
+            this.amounts[i] = amount;
+            this.priceIds[i] = priceId;
+            this.productIds[i] = productId;
+            this.statuses[i] = status;
+        }
+
+        /**
+         * Position of the price, or {@code -(insertion point) - 1} as {@link Arrays#binarySearch}.
+         */
+        int indexOf(double amount, long priceId) {
+            int low = 0;
+            int high = this.amounts.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = compare(this.amounts[middle], this.priceIds[middle], amount, priceId);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        Chunk with(int i, double amount, long priceId, long productId, byte status) {
+            Chunk chunk = new Chunk(this.size() + 1);
+            this.copy(0, chunk, 0, i);
+            chunk.set(i, amount, priceId, productId, status);
+            this.copy(i, chunk, i + 1, this.size() - i);
+            return chunk;
+        }
+
+        Chunk without(int i) {
+            Chunk chunk = new Chunk(this.size() - 1);
+            this.copy(0, chunk, 0, i);
+            this.copy(i + 1, chunk, i, this.size() - i - 1);
+            return chunk;
+        }
+
+        Chunk slice(int from, int to) {
+            Chunk chunk = new Chunk(to - from);
+            this.copy(from, chunk, 0, to - from);
+            return chunk;
+        }
+
+        static Chunk concat(Chunk first, Chunk second) {
+            Chunk chunk = new Chunk(first.size() + second.size());
+            first.copy(0, chunk, 0, first.size());
+            second.copy(0, chunk, first.size(), second.size());
+            return chunk;
+        }
+
+        private void copy(int from, Chunk target, int to, int length) {
+            System.arraycopy(this.amounts, from, target.amounts, to, length);
+            System.arraycopy(this.priceIds, from, target.priceIds, to, length);
+            System.arraycopy(this.productIds, from, target.productIds, to, length);
+            System.arraycopy(this.statuses, from, target.statuses, to, length);
+        }
+    }
+}
@@ -1,19 +1,43 @@
 package com.productrestapi.evaluation.services;
 
 import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.PriceHistory;
+import com.productrestapi.evaluation.model.request.PriceBulkRequest;
+import com.productrestapi.evaluation.model.request.PriceFilter;
 import com.productrestapi.evaluation.model.request.PriceRequest;
+import com.productrestapi.evaluation.model.response.BulkItemResult;
+import com.productrestapi.evaluation.model.response.MultiGetResult;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 public interface PriceService {
 
     List<Price> getAllPrices(Pageable pageable);
 
+    List<Price> getAllPrices(PriceFilter filter, Pageable pageable);
+
+    Slice<Price> getPricesAfter(long lastId, int size);
+
+    Slice<Price> getPricesAfter(PriceFilter filter, long lastId, int size);
+
+    List<Map<String, Object>> getPriceFields(PriceFilter filter, Pageable pageable, List<String> fields);
+
+    Slice<Map<String, Object>> getPriceFieldsAfter(PriceFilter filter, long lastId, int size, List<String> fields);
+
+    List<PriceHistory> getPricesAsOf(long productId, Instant asOf);
+
     Price getPrice(Long id);
 
+    MultiGetResult<Price> getPrices(List<Long> ids);
+
     Price createPrice(PriceRequest price);
 
+    List<BulkItemResult> savePrices(List<PriceBulkRequest> prices);
+
     void deletePrice(Long id);
 
     Price updatePrice(Long id, Price price);
@@ -1,30 +1,68 @@
 package com.productrestapi.evaluation.services;
 
+import com.productrestapi.evaluation.config.CacheConfiguration;
+import com.productrestapi.evaluation.config.ReadFromPrimary;
+import com.productrestapi.evaluation.exceptions.PreconditionFailedException;
 import com.productrestapi.evaluation.exceptions.PriceNotFoundException;
 import com.productrestapi.evaluation.exceptions.ProductNotFoundException;
+import com.productrestapi.evaluation.model.ChangeEvent;
 import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.PriceHistory;
 import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.PriceBulkRequest;
+import com.productrestapi.evaluation.model.request.PriceFilter;
 import com.productrestapi.evaluation.model.request.PriceRequest;
+import com.productrestapi.evaluation.model.response.BulkItemResult;
+import com.productrestapi.evaluation.model.response.MultiGetResult;
+import com.productrestapi.evaluation.repositories.PriceHistoryRepository;
 import com.productrestapi.evaluation.repositories.PriceRepository;
+import com.productrestapi.evaluation.repositories.PriceRepositoryCustom;
 import com.productrestapi.evaluation.repositories.ProductRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class PriceServiceImpl implements PriceService {
 
     private final PriceRepository priceRepository;
     private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
+    private final BulkWriter bulkWriter;
+    private final PriceIndex priceIndex;
+    private final ChangeOutbox changeOutbox;
+    private final PriceHistoryRecorder priceHistoryRecorder;
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final MultiGetReader multiGetReader;
 
-    public PriceServiceImpl(PriceRepository priceRepository, ProductRepository productRepository) {
+    public PriceServiceImpl(PriceRepository priceRepository, ProductRepository productRepository,
+                            CatalogCache catalogCache, BulkWriter bulkWriter, PriceIndex priceIndex,
+                            ChangeOutbox changeOutbox, PriceHistoryRecorder priceHistoryRecorder,
+                            PriceHistoryRepository priceHistoryRepository, MultiGetReader multiGetReader) {
         this.priceRepository = priceRepository;
         this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.bulkWriter = bulkWriter;
+        this.priceIndex = priceIndex;
+        this.changeOutbox = changeOutbox;
+        this.priceHistoryRecorder = priceHistoryRecorder;
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.multiGetReader = multiGetReader;
     }
 
     /**
@@ -33,8 +71,85 @@ public class PriceServiceImpl implements PriceService {
      * @return {@link List<Price>} with the prices
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Price> getAllPrices(Pageable pageable) {
-        return priceRepository.findAll(pageable).getContent();
+        return this.getAllPrices(new PriceFilter(), pageable);
+    }
+
+    /**
+     * Get the prices matching the filter.
+     * @param filter the optional product, status and amount range filters.
+     * @param pageable the object shows how the data should retrieve.
+     * @return {@link List<Price>} with the prices
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Price> getAllPrices(PriceFilter filter, Pageable pageable) {
+        return priceRepository.findPage(filter, pageable).getContent();
+    }
+
+    /**
+     * Get the page of prices that follows the given id (keyset pagination).
+     * @param lastId the id of the last price already seen, 0 to start from the beginning.
+     * @param size the page size.
+     * @return {@link Slice<Price>} with the prices, ordered by id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Price> getPricesAfter(long lastId, int size) {
+        return this.getPricesAfter(new PriceFilter(), lastId, size);
+    }
+
+    /**
+     * Get the page of prices matching the filter that follows the given id (keyset pagination).
+     * @param filter the optional product, status and amount range filters.
+     * @param lastId the id of the last price already seen, 0 to start from the beginning.
+     * @param size the page size.
+     * @return {@link Slice<Price>} with the prices, ordered by id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Price> getPricesAfter(PriceFilter filter, long lastId, int size) {
+        return priceRepository.findPageAfter(filter, lastId, size);
+    }
+
+    /**
+     * Get the requested fields of the prices matching the filter, without loading the prices or their products.
+     * @param filter the optional product, status and amount range filters.
+     * @param pageable the object shows how the data should retrieve.
+     * @param fields the fields to select, see {@link PriceRepositoryCustom#FIELDS}.
+     * @return {@link List} with one row per price, keyed by field.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getPriceFields(PriceFilter filter, Pageable pageable, List<String> fields) {
+        return this.priceRepository.findPageFields(filter, pageable, fields).getContent();
+    }
+
+    /**
+     * Get the requested fields of the page of prices matching the filter that follows the given id.
+     * @param filter the optional product, status and amount range filters.
+     * @param lastId the id of the last price already seen, 0 to start from the beginning.
+     * @param size the page size.
+     * @param fields the fields to select, see {@link PriceRepositoryCustom#FIELDS}.
+     * @return {@link Slice} with one row per price, keyed by field, ordered by id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> getPriceFieldsAfter(PriceFilter filter, long lastId, int size, List<String> fields) {
+        return this.priceRepository.findFieldsAfter(filter, lastId, size, fields);
+    }
+
+    /**
+     * Get the prices a product had at the given instant, from the price history.
+     * @param productId the unique product id.
+     * @param asOf the instant.
+     * @return {@link List<PriceHistory>} with the price versions valid at that instant, ordered by price id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PriceHistory> getPricesAsOf(long productId, Instant asOf) {
+        return this.priceHistoryRepository.findValidAt(productId, asOf);
     }
 
     /**
@@ -43,30 +158,56 @@ public class PriceServiceImpl implements PriceService {
      * @return {@link Price} with the price.
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Cacheable(cacheNames = CacheConfiguration.PRICES, sync = true)
     public Price getPrice(Long id) {
-        return this.priceRepository.findById(id)
+        return this.priceRepository.findWithProductById(id)
                 .orElseThrow(() -> new PriceNotFoundException(id));
     }
 
     /**
-     * Create a new price
+     * Get many prices with their products, with one query per chunk of ids.
+     * @param ids the unique price ids.
+     * @return {@link MultiGetResult<Price>} with the prices found, in request order, and the missing ids.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MultiGetResult<Price> getPrices(List<Long> ids) {
+        return this.multiGetReader.read(ids, this.priceRepository::findByIdIn, Price::getId);
+    }
+
+    /**
+     * Create a new price. The price is inserted on its own against the product, so the cost does
+     * not depend on how many prices the product already has.
      * @param price the object contains price information.
      * @return {@link Price} the created object.
      */
     @Override
+    @Transactional
     @PreAuthorize("hasAuthority('ROLE_PRODUCT_PRICING')")
     public Price createPrice(PriceRequest price) {
-        Price lastElement = null;
         Product product = this.productRepository.findById(price.getProductId())
                             .orElseThrow(() -> new ProductNotFoundException(price.getProductId()));
-        product.getPrices().add(this.getPriceObj(price));
-        Set<Price> prices = this.productRepository.save(product).getPrices();
+        Price created = this.priceRepository.save(this.getPriceObj(price, product));
+        this.touch(product, created.getCreationDate());
+        this.evictWithPrices(Collections.singleton(product.getId()));
+        this.priceIndex.put(created);
+        this.changeOutbox.recordPrice(ChangeEvent.Operation.CREATED, created);
+        this.priceHistoryRecorder.record(created, created.getCreationDate());
+        return created;
+    }
 
-        Iterator<Price> iterator = prices.iterator();
-        while(iterator.hasNext()){
-            lastElement = iterator.next();
-        }
-        return lastElement;
+    /**
+     * Create or update many prices. Items without id are created, items with id are updated.
+     * Every item is validated on its own and the valid ones are written in JDBC batches.
+     * @param prices the items to write.
+     * @return {@link List<BulkItemResult>} with one result per item, in request order.
+     */
+    @Override
+    @PreAuthorize("hasAuthority('ROLE_PRODUCT_PRICING')")
+    public List<BulkItemResult> savePrices(List<PriceBulkRequest> prices) {
+        return this.bulkWriter.write(prices, this::writePrices);
     }
 
     /**
@@ -74,29 +215,156 @@ public class PriceServiceImpl implements PriceService {
      * @param id the unique price id.
      */
     @Override
+    @Transactional
     @PreAuthorize("hasAuthority('ROLE_PRODUCT_PRICING')")
     public void deletePrice(Long id) {
-        Price price = this.priceRepository.findById(id)
+        Price price = this.priceRepository.findWithProductById(id)
                 .orElseThrow(() -> new PriceNotFoundException(id));
+        Instant now = Instant.now();
+        this.touch(price.getProduct(), now);
+        this.evictWithPrices(Collections.singleton(price.getProduct().getId()));
         this.priceRepository.delete(price);
+        this.catalogCache.evictPrice(price);
+        this.priceIndex.remove(price);
+        this.changeOutbox.recordPrice(ChangeEvent.Operation.DELETED, price);
+        this.priceHistoryRecorder.recordDeletion(price, now);
     }
 
     /**
-     * Update an existing price or throws an exception.
+     * Update an existing price or throws an exception. When the body carries a version (taken from
+     * {@code If-Match}) it must be the current one, otherwise the update is rejected.
      * @param id the unique price id.
      * @param price the object contains the data to be updated.
      * @return {@link Price} the object already updated.
      */
     @Override
+    @Transactional
     @PreAuthorize("hasAuthority('ROLE_PRODUCT_PRICING')")
     public Price updatePrice(Long id, Price price) {
-        this.priceRepository.findById(id)
+        Price existing = this.priceRepository.findWithProductById(id)
                 .orElseThrow(() -> new PriceNotFoundException(id));
-        return this.priceRepository.save(price);
+        if (price.getVersion() != null && !price.getVersion().equals(existing.getVersion())) {
+            throw new PreconditionFailedException(String.valueOf(price.getVersion()));
+        }
+        Instant now = Instant.now();
+        this.catalogCache.evictPrice(existing);
+        Set<Long> touched = new HashSet<>();
+        touched.add(existing.getProduct().getId());
+        if (price.getProduct() != null && price.getProduct().getId() != existing.getProduct().getId()) {
+            long productId = price.getProduct().getId();
+            Product product = this.productRepository.findById(productId)
+                    .orElseThrow(() -> new ProductNotFoundException(productId));
+            this.touch(existing.getProduct(), now);
+            existing.setProduct(product);
+        }
+        existing.setPrice(price.getPrice())
+                .setStatus(price.getStatus())
+                .setModificationDate(now);
+        this.touch(existing.getProduct(), now);
+        touched.add(existing.getProduct().getId());
+        this.catalogCache.evictPrice(existing);
+        this.evictWithPrices(touched);
+        this.priceIndex.put(existing);
+        this.changeOutbox.recordPrice(ChangeEvent.Operation.UPDATED, existing);
+        this.priceHistoryRecorder.record(existing, now);
+        return existing;
+    }
+
+    /**
+     * A product embeds its prices, so any price change is also a change of the product:
+     * it moves the product modification date and version used for ETag and Last-Modified.
+     */
+    private void touch(Product product, Instant now) {
+        product.setModificationDate(now);
+    }
+
+    /**
+     * Evict the touched products together with all their prices: a cached price embeds its product,
+     * so its tag and Last-Modified move with the product, whichever price of it was written.
+     */
+    private void evictWithPrices(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        productIds.forEach(this.catalogCache::evictProduct);
+        this.priceRepository.findIdsByProductIdIn(productIds).forEach(this.catalogCache::evictPrice);
+    }
+
+    private List<BulkItemResult> writePrices(List<PriceBulkRequest> chunk, int offset) {
+        Set<Long> productIds = chunk.stream()
+                .filter(Objects::nonNull)
+                .map(PriceBulkRequest::getProductId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Product> existingProducts = this.productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Set<Long> priceIds = chunk.stream()
+                .filter(Objects::nonNull)
+                .map(PriceBulkRequest::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Price> existingPrices = this.priceRepository.findAllById(priceIds).stream()
+                .collect(Collectors.toMap(Price::getId, Function.identity()));
+
+        Instant now = Instant.now();
+        Set<Long> touched = new HashSet<>();
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = offset + i;
+            PriceBulkRequest item = chunk.get(i);
+            List<String> errors = this.bulkWriter.validate(item);
+            if (!errors.isEmpty()) {
+                results.add(BulkItemResult.failed(index, errors));
+                continue;
+            }
+            Product product = existingProducts.get(item.getProductId());
+            if (product == null) {
+                results.add(BulkItemResult.failed(index, Collections.singletonList(
+                        new ProductNotFoundException(item.getProductId()).getMessage())));
+                continue;
+            }
+            if (item.getId() == null) {
+                Price price = this.priceRepository.save(new Price()
+                        .setProduct(product)
+                        .setCreationDate(now)
+                        .setPrice(item.getPrice())
+                        .setStatus(item.getStatus()));
+                this.touch(product, now);
+                touched.add(product.getId());
+                this.priceIndex.put(price);
+                this.changeOutbox.recordPrice(ChangeEvent.Operation.CREATED, price);
+                this.priceHistoryRecorder.record(price, now);
+                results.add(BulkItemResult.created(index, price.getId()));
+                continue;
+            }
+            Price price = existingPrices.get(item.getId());
+            if (price == null) {
+                results.add(BulkItemResult.failed(index, Collections.singletonList(
+                        new PriceNotFoundException(item.getId()).getMessage())));
+                continue;
+            }
+            this.catalogCache.evictPrice(price);
+            this.touch(price.getProduct(), now);
+            this.touch(product, now);
+            touched.add(price.getProduct().getId());
+            touched.add(product.getId());
+            price.setProduct(product)
+                    .setModificationDate(now)
+                    .setPrice(item.getPrice())
+                    .setStatus(item.getStatus());
+            this.priceIndex.put(price);
+            this.changeOutbox.recordPrice(ChangeEvent.Operation.UPDATED, price);
+            this.priceHistoryRecorder.record(price, now);
+            results.add(BulkItemResult.updated(index, price.getId()));
+        }
+        // one query for the prices of every product touched by the chunk
+        this.evictWithPrices(touched);
+        return results;
     }
 
-    private Price getPriceObj(PriceRequest priceRequest){
+    private Price getPriceObj(PriceRequest priceRequest, Product product){
         Price price = new Price();
+        price.setProduct(product);
         price.setCreationDate(Instant.now());
         price.setStatus(priceRequest.getStatus());
         price.setPrice(priceRequest.getPrice());
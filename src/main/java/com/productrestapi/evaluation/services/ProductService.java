@@ -1,20 +1,43 @@
 package com.productrestapi.evaluation.services;
 
 import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.ProductFilter;
+import com.productrestapi.evaluation.model.response.BulkItemResult;
+import com.productrestapi.evaluation.model.response.MultiGetResult;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.prepost.PreAuthorize;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService {
 
     List<Product> getAllProducts(Pageable pageable);
 
+    List<Product> getAllProducts(ProductFilter filter, Pageable pageable);
+
+    Slice<Product> getProductsAfter(long lastId, int size);
+
+    Slice<Product> getProductsAfter(ProductFilter filter, long lastId, int size);
+
+    List<Map<String, Object>> getProductFields(ProductFilter filter, Pageable pageable, List<String> fields);
+
+    Slice<Map<String, Object>> getProductFieldsAfter(ProductFilter filter, long lastId, int size, List<String> fields);
+
     Product getProduct(long id);
 
+    MultiGetResult<Product> getProducts(List<Long> ids);
+
     Product createProduct(Product product);
 
+    List<BulkItemResult> saveProducts(List<Product> products);
+
     Product updateProduct(long id, Product product);
 
     void deleteProduct(long id);
+
+    void exportProducts(OutputStream out, ExportFormat format) throws IOException;
 }
@@ -1,23 +1,66 @@
 package com.productrestapi.evaluation.services;
 
+import com.productrestapi.evaluation.config.CacheConfiguration;
+import com.productrestapi.evaluation.config.ReadFromPrimary;
+import com.productrestapi.evaluation.exceptions.PreconditionFailedException;
 import com.productrestapi.evaluation.exceptions.ProductNotFoundException;
-import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.ChangeEvent;
 import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.ProductFilter;
+import com.productrestapi.evaluation.model.response.BulkItemResult;
+import com.productrestapi.evaluation.model.response.MultiGetResult;
 import com.productrestapi.evaluation.repositories.ProductRepository;
+import com.productrestapi.evaluation.repositories.ProductRepositoryCustom;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    private static final String CREATORS = "ROLE_PRODUCT_CREATORS";
+    private static final String MANAGERS = "ROLE_PRODUCT_MANAGERS";
+    private static final String ACCESS_DENIED = "Access is denied";
+
     private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
+    private final BulkWriter bulkWriter;
+    private final CatalogExporter catalogExporter;
+    private final PriceIndex priceIndex;
+    private final ChangeOutbox changeOutbox;
+    private final PriceHistoryRecorder priceHistoryRecorder;
+    private final MultiGetReader multiGetReader;
 
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, CatalogCache catalogCache, BulkWriter bulkWriter,
+                              CatalogExporter catalogExporter, PriceIndex priceIndex, ChangeOutbox changeOutbox,
+                              PriceHistoryRecorder priceHistoryRecorder, MultiGetReader multiGetReader) {
         this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.bulkWriter = bulkWriter;
+        this.catalogExporter = catalogExporter;
+        this.priceIndex = priceIndex;
+        this.changeOutbox = changeOutbox;
+        this.priceHistoryRecorder = priceHistoryRecorder;
+        this.multiGetReader = multiGetReader;
     }
 
     /**
@@ -26,8 +69,74 @@ public class ProductServiceImpl implements ProductService {
      * @return {@link List<Product>} with products
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable).getContent();
+        return this.getAllProducts(new ProductFilter(), pageable);
+    }
+
+    /**
+     * Get the products matching the filter.
+     * @param filter the optional status, description prefix and creation date filters.
+     * @param pageable the object shows how the data should retrieve.
+     * @return {@link List<Product>} with products
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> getAllProducts(ProductFilter filter, Pageable pageable) {
+        return this.fetchWithPrices(productRepository.findPageIds(filter, pageable).getContent());
+    }
+
+    /**
+     * Get the page of products that follows the given id (keyset pagination).
+     * @param lastId the id of the last product already seen, 0 to start from the beginning.
+     * @param size the page size.
+     * @return {@link Slice<Product>} with the products, ordered by id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Product> getProductsAfter(long lastId, int size) {
+        return this.getProductsAfter(new ProductFilter(), lastId, size);
+    }
+
+    /**
+     * Get the page of products matching the filter that follows the given id (keyset pagination).
+     * @param filter the optional status, description prefix and creation date filters.
+     * @param lastId the id of the last product already seen, 0 to start from the beginning.
+     * @param size the page size.
+     * @return {@link Slice<Product>} with the products, ordered by id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Product> getProductsAfter(ProductFilter filter, long lastId, int size) {
+        Slice<Long> ids = productRepository.findIdsAfter(filter, lastId, size);
+        return new SliceImpl<>(this.fetchWithPrices(ids.getContent()), ids.getPageable(), ids.hasNext());
+    }
+
+    /**
+     * Get the requested fields of the products matching the filter, without loading the products.
+     * @param filter the optional status, description prefix and creation date filters.
+     * @param pageable the object shows how the data should retrieve.
+     * @param fields the fields to select, see {@link ProductRepositoryCustom#FIELDS}.
+     * @return {@link List} with one row per product, keyed by field.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProductFields(ProductFilter filter, Pageable pageable, List<String> fields) {
+        return this.productRepository.findPageFields(filter, pageable, fields).getContent();
+    }
+
+    /**
+     * Get the requested fields of the page of products matching the filter that follows the given id.
+     * @param filter the optional status, description prefix and creation date filters.
+     * @param lastId the id of the last product already seen, 0 to start from the beginning.
+     * @param size the page size.
+     * @param fields the fields to select, see {@link ProductRepositoryCustom#FIELDS}.
+     * @return {@link Slice} with one row per product, keyed by field, ordered by id.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> getProductFieldsAfter(ProductFilter filter, long lastId, int size, List<String> fields) {
+        return this.productRepository.findFieldsAfter(filter, lastId, size, fields);
     }
 
     /**
@@ -36,41 +145,84 @@ public class ProductServiceImpl implements ProductService {
      * @return {@link Product} with the product.
      */
     @Override
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Cacheable(cacheNames = CacheConfiguration.PRODUCTS, sync = true)
     public Product getProduct(long id) {
-        return this.productRepository.findById(id)
+        return this.productRepository.findWithPricesById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
     }
 
+    /**
+     * Get many products with their prices, with one query per chunk of ids.
+     * @param ids the unique product ids.
+     * @return {@link MultiGetResult<Product>} with the products found, in request order, and the missing ids.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MultiGetResult<Product> getProducts(List<Long> ids) {
+        return this.multiGetReader.read(ids, this.productRepository::findDistinctByIdIn, Product::getId);
+    }
+
     /**
      * Create a new product.
      * @param product the object contains product information
      * @return {@link Product} the created product.
      */
     @Override
+    @Transactional
     @PreAuthorize("hasAuthority('ROLE_PRODUCT_CREATORS')")
     public Product createProduct(Product product) {
-        product.setCreationDate(Instant.now());
-
-        if(product.getPrices().size() > 0){
-            product.getPrices().forEach(this::fillPrices);
-        }
-        return this.productRepository.save(product);
+        Product created = this.productRepository.save(this.prepareNew(product, Instant.now()));
+        // nothing cached for a new product yet, but the pages that will list it are
+        this.catalogCache.evictProduct(created.getId());
+        this.priceIndex.putProduct(created);
+        this.changeOutbox.recordProduct(ChangeEvent.Operation.CREATED, created);
+        this.priceHistoryRecorder.recordProduct(created, created.getCreationDate());
+        return created;
     }
 
+    /**
+     * Create or update many products. Items without id are created and need the creators role,
+     * items with id are updated and need the managers role. Every item is validated on its own
+     * and the valid ones are written in JDBC batches. Prices are only written for new products.
+     * @param products the items to write.
+     * @return {@link List<BulkItemResult>} with one result per item, in request order.
+     */
+    @Override
+    @PreAuthorize("hasAnyAuthority('ROLE_PRODUCT_CREATORS', 'ROLE_PRODUCT_MANAGERS')")
+    public List<BulkItemResult> saveProducts(List<Product> products) {
+        Set<String> authorities = SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        boolean canCreate = authorities.contains(CREATORS);
+        boolean canUpdate = authorities.contains(MANAGERS);
+        return this.bulkWriter.write(products, (chunk, offset) -> this.writeProducts(chunk, offset, canCreate, canUpdate));
+    }
 
 
     /**
-     * Update an existing product or throws an exception.
+     * Update an existing product or throws an exception. When the body carries a version (taken from
+     * {@code If-Match}) it must be the current one, otherwise the update is rejected.
      * @param id the unique product id.
      * @param product the object contains the data to be updated.
      * @return {@link Product} the updated object.
      */
     @Override
+    @Transactional
     @PreAuthorize("hasAuthority('ROLE_PRODUCT_MANAGERS')")
     public Product updateProduct(long id, Product product) {
-        this.productRepository.findById(id)
+        Product existing = this.productRepository.findWithPricesById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
-        return this.productRepository.save(product);
+        if (product.getVersion() != null && !product.getVersion().equals(existing.getVersion())) {
+            throw new PreconditionFailedException(String.valueOf(product.getVersion()));
+        }
+        existing.setDescription(product.getDescription())
+                .setStatus(product.getStatus())
+                .setModificationDate(Instant.now());
+        this.catalogCache.evictProduct(existing);
+        this.changeOutbox.recordProduct(ChangeEvent.Operation.UPDATED, existing);
+        return existing;
     }
 
     /**
@@ -78,16 +230,105 @@ public class ProductServiceImpl implements ProductService {
      * @param id the unique product id.
      */
     @Override
+    @Transactional
     @PreAuthorize("hasAuthority('ROLE_PRODUCT_MANAGERS')")
     public void deleteProduct(long id) {
-        Product product = this.productRepository.findById(id)
+        Product product = this.productRepository.findWithPricesById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
         this.productRepository.delete(product);
+        this.catalogCache.evictProduct(product);
+        this.priceIndex.removeProduct(product);
+        this.changeOutbox.recordProduct(ChangeEvent.Operation.DELETED, product);
+        this.priceHistoryRecorder.recordProductDeletion(product, Instant.now());
+    }
+
+    /**
+     * Load a page of products with their prices in one query, keeping the order of the given ids.
+     */
+    private List<Product> fetchWithPrices(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Product> products = this.productRepository.findDistinctByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Stream every product with its prices to the output, reading the catalogue with a forward-only cursor.
+     * @param out the stream to write to.
+     * @param format the output format.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(OutputStream out, ExportFormat format) throws IOException {
+        try (Stream<Object[]> rows = this.productRepository.streamCatalogue()) {
+            if (format == ExportFormat.CSV) {
+                this.catalogExporter.writeCsv(rows, out);
+            } else {
+                this.catalogExporter.writeNdjson(rows, out);
+            }
+        }
     }
 
-    private Price fillPrices(Price price) {
-        price.getProduct();
-        return price;
+    private List<BulkItemResult> writeProducts(List<Product> chunk, int offset, boolean canCreate, boolean canUpdate) {
+        Set<Long> ids = chunk.stream()
+                .filter(Objects::nonNull)
+                .map(Product::getId)
+                .filter(id -> id != 0)
+                .collect(Collectors.toSet());
+        List<Product> found = ids.isEmpty() ? Collections.emptyList() : this.productRepository.findDistinctByIdIn(ids);
+        Map<Long, Product> existing = found.stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Instant now = Instant.now();
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = offset + i;
+            Product item = chunk.get(i);
+            List<String> errors = this.bulkWriter.validate(item);
+            if (!errors.isEmpty()) {
+                results.add(BulkItemResult.failed(index, errors));
+                continue;
+            }
+            if (!(item.getId() == 0 ? canCreate : canUpdate)) {
+                results.add(BulkItemResult.failed(index, Collections.singletonList(ACCESS_DENIED)));
+                continue;
+            }
+            if (item.getId() == 0) {
+                Product product = this.productRepository.save(this.prepareNew(item, now));
+                this.catalogCache.evictProduct(product.getId());
+                this.priceIndex.putProduct(product);
+                this.changeOutbox.recordProduct(ChangeEvent.Operation.CREATED, product);
+                this.priceHistoryRecorder.recordProduct(product, now);
+                results.add(BulkItemResult.created(index, product.getId()));
+                continue;
+            }
+            Product product = existing.get(item.getId());
+            if (product == null) {
+                results.add(BulkItemResult.failed(index, Collections.singletonList(
+                        new ProductNotFoundException(item.getId()).getMessage())));
+                continue;
+            }
+            product.setDescription(item.getDescription())
+                    .setStatus(item.getStatus())
+                    .setModificationDate(now);
+            this.catalogCache.evictProduct(product);
+            this.changeOutbox.recordProduct(ChangeEvent.Operation.UPDATED, product);
+            results.add(BulkItemResult.updated(index, product.getId()));
+        }
+        return results;
+    }
+
+    private Product prepareNew(Product product, Instant now) {
+        product.setCreationDate(now);
+        if (product.getPrices() != null) {
+            product.getPrices().forEach(price -> price.setProduct(product).setCreationDate(now));
+        }
+        return product;
     }
 
 }
@@ -0,0 +1,56 @@
+package com.productrestapi.evaluation.utils;
+
+import com.productrestapi.evaluation.exceptions.InvalidCursorException;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Opaque cursors for keyset (seek) pagination. A cursor wraps the id of the last row
+ * of a page, so the next page can be read with {@code id > :lastId} instead of an OFFSET.
+ */
+public class CursorUtils {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String PREFIX = "id:";
+
+    public static String encode(long lastId) {
+        byte[] raw = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * Decode a cursor sent by a client. An empty cursor means "start from the beginning".
+     * @param cursor the opaque cursor.
+     * @return the last id seen by the client.
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new InvalidCursorException(cursor);
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * Cursor pointing after the last element of the slice, or {@code null} when it is the last page.
+     */
+    public static <T> String nextCursor(Slice<T> slice, ToLongFunction<T> idExtractor) {
+        List<T> content = slice.getContent();
+        if (!slice.hasNext() || content.isEmpty()) {
+            return null;
+        }
+        return encode(idExtractor.applyAsLong(content.get(content.size() - 1)));
+    }
+}
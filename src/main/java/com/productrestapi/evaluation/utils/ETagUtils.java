@@ -0,0 +1,103 @@
+package com.productrestapi.evaluation.utils;
+
+import com.productrestapi.evaluation.exceptions.PreconditionFailedException;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Entity tags built from the {@code @Version} columns, so they can be computed without
+ * serializing the response. A product version moves with every change of its prices, and a price
+ * tag carries the version of the product it embeds. The tags are weak: the same version is sent as
+ * JSON or Smile, gzipped or not, and Tomcat does not compress responses with a strong tag.
+ */
+public class ETagUtils {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    public static String of(Product product) {
+        return quote(String.valueOf(version(product.getVersion())));
+    }
+
+    public static String of(Price price) {
+        return quote(version(price.getVersion()) + "." + version(price.getProduct().getVersion()));
+    }
+
+    public static String ofProducts(List<Product> products) {
+        long hash = 1;
+        for (Product product : products) {
+            hash = 31 * (31 * hash + product.getId()) + version(product.getVersion());
+        }
+        return quote(Long.toHexString(hash));
+    }
+
+    public static String ofPrices(List<Price> prices) {
+        long hash = 1;
+        for (Price price : prices) {
+            hash = 31 * (31 * hash + price.getId()) + version(price.getVersion());
+            hash = 31 * hash + version(price.getProduct().getVersion());
+        }
+        return quote(Long.toHexString(hash));
+    }
+
+    /**
+     * The last change of the product or of one of its prices. Rows without dates are reported as
+     * modified now, so they are never answered with 304 based on {@code If-Modified-Since}.
+     */
+    public static Instant lastModified(Product product) {
+        return orNow(latest(product.getCreationDate(), product.getModificationDate()));
+    }
+
+    public static Instant lastModified(Price price) {
+        Product product = price.getProduct();
+        Instant own = latest(price.getCreationDate(), price.getModificationDate());
+        return orNow(latest(own, latest(product.getCreationDate(), product.getModificationDate())));
+    }
+
+    /**
+     * Read the version a client expects from an {@code If-Match} header built from one of our tags,
+     * weak or, as sent before the tags became weak, strong.
+     * @param ifMatch the header value, may be null.
+     * @return the expected version, or {@code null} when the header is absent or {@code *}.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith(WEAK_PREFIX)) {
+            tag = tag.substring(WEAK_PREFIX.length());
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException(ifMatch);
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int separator = value.indexOf('.');
+        try {
+            return Long.parseLong(separator < 0 ? value : value.substring(0, separator));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException(ifMatch);
+        }
+    }
+
+    private static long version(Long version) {
+        return version == null ? 0 : version;
+    }
+
+    private static Instant latest(Instant first, Instant second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.isAfter(second) ? first : second;
+    }
+
+    private static Instant orNow(Instant instant) {
+        return instant == null ? Instant.now() : instant;
+    }
+
+    private static String quote(String value) {
+        return WEAK_PREFIX + "\"" + value + "\"";
+    }
+}
@@ -0,0 +1,39 @@
+package com.productrestapi.evaluation.utils;
+
+import com.productrestapi.evaluation.exceptions.UnknownFieldException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses the {@code fields} parameter of sparse fieldset requests.
+ */
+public class FieldsUtils {
+
+    private static final String ID = "id";
+
+    /**
+     * The requested fields, in request order and without repetitions. The id is always included, first,
+     * so rows can be told apart and keyset cursors built.
+     * @param fields the comma separated field names.
+     * @param allowed the fields that can be selected.
+     * @return the fields to select.
+     */
+    public static List<String> parse(String fields, List<String> allowed) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(ID);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new UnknownFieldException(name, allowed);
+            }
+            selected.add(name);
+        }
+        return new ArrayList<>(selected);
+    }
+}
@@ -0,0 +1,40 @@
+package com.productrestapi.evaluation.utils;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.productrestapi.evaluation.exceptions.BulkRequestTooLargeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Newline delimited JSON (one JSON document per line).
+ */
+public class NdjsonUtils {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    /**
+     * Read every document of the body, stopping as soon as there are more than {@code maxItems}
+     * so an oversized upload is not read into memory.
+     * @param maxItems the documents accepted in one body.
+     * @return {@link List} with the documents, in body order.
+     */
+    public static <T> List<T> read(HttpInputMessage input, Class<T> type, ObjectMapper objectMapper, int maxItems) {
+        try (MappingIterator<T> iterator = objectMapper.readerFor(type).readValues(input.getBody())) {
+            List<T> items = new ArrayList<>();
+            while (iterator.hasNextValue()) {
+                if (items.size() == maxItems) {
+                    throw new BulkRequestTooLargeException(maxItems);
+                }
+                items.add(iterator.nextValue());
+            }
+            return items;
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Malformed NDJSON body: " + e.getMessage(), e, input);
+        }
+    }
+}
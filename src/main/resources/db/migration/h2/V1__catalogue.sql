@@ -0,0 +1,64 @@
+-- Catalogue schema. Hibernate only validates it (spring.jpa.hibernate.ddl-auto=validate): every entity change
+-- needs a new migration next to this one.
+
+create sequence product_seq start with 1 increment by 50;
+create sequence price_seq start with 1 increment by 50;
+create sequence change_event_seq start with 1 increment by 50;
+create sequence price_history_seq start with 1 increment by 50;
+
+create table product (
+    id bigint not null,
+    description varchar(255) not null,
+    product_status varchar(255),
+    creation_date timestamp,
+    modification_date timestamp,
+    version bigint,
+    primary key (id)
+);
+
+create index IDX_PRODUCT_STATUS on product (product_status, id);
+create index IDX_PRODUCT_DESCRIPTION on product (description);
+create index IDX_PRODUCT_CREATION_DATE on product (creation_date);
+
+create table price (
+    id bigint not null,
+    product_id bigint,
+    amount double not null,
+    status varchar(255),
+    creation_date timestamp,
+    modification_date timestamp,
+    version bigint,
+    primary key (id),
+    constraint FK_PRICE_PRODUCT foreign key (product_id) references product (id)
+);
+
+create index IDX_PRICE_PRODUCT on price (product_id, id);
+create index IDX_PRICE_STATUS on price (status, id);
+create index IDX_PRICE_AMOUNT on price (amount);
+
+create table change_event (
+    id bigint not null,
+    seq_no bigint,
+    entity_type varchar(255),
+    operation varchar(255),
+    entity_id bigint,
+    product_id bigint,
+    creation_date timestamp,
+    payload clob,
+    primary key (id),
+    constraint IDX_CHANGE_EVENT_SEQ_NO unique (seq_no)
+);
+
+create table price_history (
+    id bigint not null,
+    price_id bigint,
+    product_id bigint,
+    amount double,
+    status varchar(255),
+    valid_from timestamp,
+    valid_to timestamp,
+    primary key (id)
+);
+
+create index IDX_PRICE_HISTORY_PRODUCT on price_history (product_id, valid_from);
+create index IDX_PRICE_HISTORY_PRICE on price_history (price_id, valid_to);
@@ -0,0 +1,6 @@
+-- open versions end at PriceHistory.OPEN instead of null, so the as-of lookup seeks on (product_id, valid_to)
+update price_history set valid_to = timestamp '9999-12-31 00:00:00' where valid_to is null;
+alter table price_history alter column valid_to set not null;
+
+drop index IDX_PRICE_HISTORY_PRODUCT;
+create index IDX_PRICE_HISTORY_PRODUCT on price_history (product_id, valid_to);
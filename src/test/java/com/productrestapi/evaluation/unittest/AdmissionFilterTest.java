@@ -0,0 +1,127 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.security.AdmissionFilter;
+import com.productrestapi.evaluation.security.RateLimiter;
+import com.productrestapi.evaluation.security.TokenBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionFilterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("a bucket lets a burst through, then one request per interval")
+    void tokenBucket() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10);
+        assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(SECOND / 10)).isPositive();
+        // idle long enough to be full again, not fuller
+        assertThat(bucket.tryAcquire(10 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(10 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(10 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(10 * SECOND)).isPositive();
+    }
+
+    @Test
+    @DisplayName("a caller over its write budget gets 429, its reads and other callers go on")
+    void rateLimitsPerCallerAndBudget() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(new RateLimiter(1, 5, 0.01, 2), 100, () -> 0, 20,
+                objectMapper, meterRegistry);
+
+        authenticate("roque");
+        assertThat(send(filter, "POST", "/api/v1/price").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/v1/price").getStatus()).isEqualTo(200);
+        MockHttpServletResponse limited = send(filter, "POST", "/api/v1/price");
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader("Retry-After")).isNotNull();
+        assertThat(limited.getContentAsString()).contains("Rate limit exceeded");
+        assertThat(send(filter, "GET", "/api/v1/price").getStatus()).isEqualTo(200);
+
+        authenticate("anibal");
+        assertThat(send(filter, "POST", "/api/v1/price").getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("evaluation.admission.rejected").tag("reason", "rate-limit").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("requests beyond the concurrency limit get 503 until an async request completes")
+    void shedsBeyondConcurrencyLimit() throws Exception {
+        AdmissionFilter filter = new AdmissionFilter(null, 1, () -> 0, 20, objectMapper, meterRegistry);
+
+        MockHttpServletRequest running = request("GET", "/api/v1/product");
+        running.setAsyncSupported(true);
+        new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.startAsync();
+            }
+        }, filter).doFilter(running, new MockHttpServletResponse());
+
+        MockHttpServletResponse shed = send(filter, "GET", "/api/v1/product");
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(send(filter, "GET", "/api/v1/changes").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "GET", "/actuator/health").getStatus()).isEqualTo(200);
+
+        running.getAsyncContext().complete();
+        assertThat(send(filter, "GET", "/api/v1/product").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("requests get 503 while too many threads wait for a database connection")
+    void shedsWhenPoolIsBusy() throws Exception {
+        AtomicInteger waiting = new AtomicInteger(20);
+        AdmissionFilter filter = new AdmissionFilter(null, 100, waiting::get, 20, objectMapper, meterRegistry);
+
+        assertThat(send(filter, "GET", "/api/v1/product").getStatus()).isEqualTo(503);
+        waiting.set(3);
+        assertThat(send(filter, "GET", "/api/v1/product").getStatus()).isEqualTo(200);
+    }
+
+    private static void authenticate(String user) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(user, null, "ROLE_USER"));
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+
+    private static MockHttpServletResponse send(AdmissionFilter filter, String method, String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, uri), response, new MockFilterChain());
+        return response;
+    }
+}
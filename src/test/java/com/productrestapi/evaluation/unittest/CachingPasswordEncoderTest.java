@@ -0,0 +1,59 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.security.CachingPasswordEncoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingPasswordEncoderTest {
+
+    private static final String HASH = "{bcrypt}$2a$10$first";
+    private static final String NEW_HASH = "{bcrypt}$2a$10$second";
+
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private final CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate, "maximumSize=100,expireAfterWrite=5m");
+
+    @Test
+    @DisplayName("a credential verified once is not hashed again")
+    void remembersVerifiedCredential() {
+        when(delegate.matches("bravo_secret", HASH)).thenReturn(true);
+
+        assertThat(encoder.matches("bravo_secret", HASH)).isTrue();
+        assertThat(encoder.matches("bravo_secret", HASH)).isTrue();
+
+        verify(delegate, times(1)).matches("bravo_secret", HASH);
+    }
+
+    @Test
+    @DisplayName("a wrong password is always checked against the hash")
+    void neverRemembersFailure() {
+        when(delegate.matches("bravo_secret", HASH)).thenReturn(true);
+        when(delegate.matches("wrong", HASH)).thenReturn(false);
+
+        assertThat(encoder.matches("bravo_secret", HASH)).isTrue();
+        assertThat(encoder.matches("wrong", HASH)).isFalse();
+        assertThat(encoder.matches("wrong", HASH)).isFalse();
+
+        verify(delegate, times(2)).matches("wrong", HASH);
+    }
+
+    @Test
+    @DisplayName("a changed password hash is verified again")
+    void missesAfterPasswordChange() {
+        when(delegate.matches(eq("bravo_secret"), anyString())).thenReturn(true);
+
+        assertThat(encoder.matches("bravo_secret", HASH)).isTrue();
+        assertThat(encoder.matches("bravo_secret", NEW_HASH)).isTrue();
+
+        verify(delegate).matches("bravo_secret", HASH);
+        verify(delegate).matches("bravo_secret", NEW_HASH);
+    }
+}
@@ -0,0 +1,70 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.security.CachingTokenStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingTokenStoreTest {
+
+    private final TokenStore delegate = mock(TokenStore.class);
+
+    private final CachingTokenStore tokenStore = new CachingTokenStore(delegate, "maximumSize=100");
+
+    @Test
+    @DisplayName("a verified token is read from the delegate once until it is removed")
+    void cachesVerifiedTokens() {
+        OAuth2AccessToken token = new DefaultOAuth2AccessToken("signed");
+        when(delegate.readAccessToken("signed")).thenReturn(token);
+
+        assertThat(tokenStore.readAccessToken("signed")).isSameAs(token);
+        assertThat(tokenStore.readAccessToken("signed")).isSameAs(token);
+        verify(delegate, times(1)).readAccessToken("signed");
+
+        tokenStore.removeAccessToken(token);
+        tokenStore.readAccessToken("signed");
+        verify(delegate, times(2)).readAccessToken("signed");
+    }
+
+    @Test
+    @DisplayName("a token that fails verification is not cached")
+    void doesNotCacheInvalidTokens() {
+        when(delegate.readAccessToken("forged")).thenThrow(new InvalidTokenException("bad signature"));
+
+        assertThatThrownBy(() -> tokenStore.readAccessToken("forged")).isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> tokenStore.readAccessToken("forged")).isInstanceOf(InvalidTokenException.class);
+        verify(delegate, times(2)).readAccessToken("forged");
+    }
+
+    @Test
+    @DisplayName("every request gets its own authentication, so request details are never shared")
+    void authenticationIsNotShared() {
+        OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "bravo_client", null, true,
+                Collections.singleton("read"), null, null, null, null);
+        when(delegate.readAuthentication("signed")).thenReturn(new OAuth2Authentication(request, null));
+
+        OAuth2Authentication first = tokenStore.readAuthentication("signed");
+        first.setDetails("request from 10.0.0.1");
+        OAuth2Authentication second = tokenStore.readAuthentication("signed");
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getDetails()).isNull();
+        assertThat(second.getOAuth2Request().getClientId()).isEqualTo("bravo_client");
+        assertThat(second.isAuthenticated()).isTrue();
+        verify(delegate, times(1)).readAuthentication("signed");
+    }
+}
@@ -0,0 +1,157 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.config.CacheConfiguration;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.PriceRequest;
+import com.productrestapi.evaluation.repositories.ChangeEventRepository;
+import com.productrestapi.evaluation.repositories.PriceHistoryRepository;
+import com.productrestapi.evaluation.services.CatalogCache;
+import com.productrestapi.evaluation.services.PriceServiceImpl;
+import com.productrestapi.evaluation.services.ProductServiceImpl;
+import com.productrestapi.evaluation.utils.ETagUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ServiceSliceTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+class CatalogCacheTest {
+
+    @Autowired
+    ProductServiceImpl productService;
+
+    @Autowired
+    PriceServiceImpl priceService;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    CatalogCache catalogCache;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    ChangeEventRepository changeEventRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        priceHistoryRepository.deleteAll();
+        changeEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("a second product read is served from the cache until a write evicts it")
+    void productReadThroughAndEviction() {
+        Product product = productService.createProduct(new Product().setDescription("Leche").setStatus("A"));
+        Cache products = cacheManager.getCache(CacheConfiguration.PRODUCTS);
+
+        Product first = productService.getProduct(product.getId());
+        statistics.clear();
+        Product second = productService.getProduct(product.getId());
+        assertThat(second).isSameAs(first);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        productService.updateProduct(product.getId(), new Product().setDescription("Leche entera").setStatus("A"));
+        assertThat(products.get(product.getId())).isNull();
+        assertThat(productService.getProduct(product.getId()).getDescription()).isEqualTo("Leche entera");
+
+        productService.deleteProduct(product.getId());
+    }
+
+    @Test
+    @DisplayName("a price write evicts the price and the product that embeds it")
+    void priceWriteEvictsBothSides() {
+        Product product = productService.createProduct(new Product().setDescription("Pan").setStatus("A"));
+        Price price = priceService.createPrice(new PriceRequest().setProductId(product.getId()).setPrice(1.5).setStatus("A"));
+        Cache products = cacheManager.getCache(CacheConfiguration.PRODUCTS);
+        Cache prices = cacheManager.getCache(CacheConfiguration.PRICES);
+
+        assertThat(productService.getProduct(product.getId()).getPrices()).hasSize(1);
+        priceService.getPrice(price.getId());
+        statistics.clear();
+        assertThat(priceService.getPrice(price.getId()).getPrice()).isEqualTo(1.5);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        priceService.updatePrice(price.getId(), new Price().setPrice(2.0).setStatus("A"));
+        assertThat(prices.get(price.getId())).isNull();
+        assertThat(products.get(product.getId())).isNull();
+        assertThat(priceService.getPrice(price.getId()).getPrice()).isEqualTo(2.0);
+        assertThat(productService.getProduct(product.getId()).getPrices())
+                .extracting(Price::getPrice).containsExactly(2.0);
+
+        productService.deleteProduct(product.getId());
+    }
+
+    @Test
+    @DisplayName("a price write evicts the other cached prices of its product, whose embedded product it changed")
+    void priceWriteEvictsSiblingPrices() {
+        Product product = productService.createProduct(new Product().setDescription("Arroz").setStatus("A"));
+        Price first = priceService.createPrice(new PriceRequest().setProductId(product.getId()).setPrice(1.5).setStatus("A"));
+        Cache prices = cacheManager.getCache(CacheConfiguration.PRICES);
+        String tag = ETagUtils.of(priceService.getPrice(first.getId()));
+        assertThat(prices.get(first.getId())).isNotNull();
+
+        Price second = priceService.createPrice(new PriceRequest().setProductId(product.getId()).setPrice(1.75).setStatus("I"));
+        assertThat(prices.get(first.getId())).isNull();
+        assertThat(ETagUtils.of(priceService.getPrice(first.getId()))).isNotEqualTo(tag);
+
+        tag = ETagUtils.of(priceService.getPrice(first.getId()));
+        priceService.updatePrice(second.getId(), new Price().setPrice(2.0).setStatus("A"));
+        assertThat(ETagUtils.of(priceService.getPrice(first.getId()))).isNotEqualTo(tag);
+
+        tag = ETagUtils.of(priceService.getPrice(first.getId()));
+        priceService.deletePrice(second.getId());
+        assertThat(ETagUtils.of(priceService.getPrice(first.getId()))).isNotEqualTo(tag);
+
+        productService.deleteProduct(product.getId());
+    }
+
+    @Test
+    @DisplayName("a write moves the catalogue generation, and the entry generations of what it evicts only")
+    void generationPerEntry() {
+        Product leche = productService.createProduct(new Product().setDescription("Leche").setStatus("A"));
+        Product pan = productService.createProduct(new Product().setDescription("Pan").setStatus("A"));
+        Price price = priceService.createPrice(new PriceRequest().setProductId(leche.getId()).setPrice(1.5).setStatus("A"));
+        long catalogue = catalogCache.getGeneration();
+        long lecheGeneration = catalogCache.getGeneration(CacheConfiguration.PRODUCTS, leche.getId());
+        long panGeneration = catalogCache.getGeneration(CacheConfiguration.PRODUCTS, pan.getId());
+        long priceGeneration = catalogCache.getGeneration(CacheConfiguration.PRICES, price.getId());
+
+        priceService.updatePrice(price.getId(), new Price().setPrice(2.0).setStatus("A"));
+
+        assertThat(catalogCache.getGeneration()).isGreaterThan(catalogue);
+        assertThat(catalogCache.getGeneration(null, null)).isEqualTo(catalogCache.getGeneration());
+        assertThat(catalogCache.getGeneration(CacheConfiguration.PRICES, price.getId())).isGreaterThan(priceGeneration);
+        assertThat(catalogCache.getGeneration(CacheConfiguration.PRODUCTS, leche.getId())).isGreaterThan(lecheGeneration);
+        assertThat(catalogCache.getGeneration(CacheConfiguration.PRODUCTS, pan.getId())).isEqualTo(panGeneration);
+
+        productService.deleteProduct(leche.getId());
+        productService.deleteProduct(pan.getId());
+    }
+}
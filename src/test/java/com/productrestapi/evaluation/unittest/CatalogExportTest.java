@@ -0,0 +1,124 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.config.AsyncTimeout;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.services.ExportFormat;
+import com.productrestapi.evaluation.services.ProductServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ServiceSliceTest
+@Transactional
+class CatalogExportTest {
+
+    @Autowired
+    ProductServiceImpl productService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        Product leche = entityManager.persist(new Product().setDescription("Leche").setStatus("A").setCreationDate(Instant.now()));
+        entityManager.persist(new Price().setProduct(leche).setPrice(1.5).setStatus("A").setCreationDate(Instant.now()));
+        entityManager.persist(new Price().setProduct(leche).setPrice(1.75).setStatus("I").setCreationDate(Instant.now()));
+        Product pan = entityManager.persist(new Product().setDescription("Pan, integral").setStatus("A").setCreationDate(Instant.now()));
+        productIds = Arrays.asList(leche.getId(), pan.getId());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("NDJSON has one line per product with its prices embedded")
+    void exportsNdjson() throws Exception {
+        List<String> lines = export(ExportFormat.NDJSON);
+
+        assertThat(lines).hasSize(2);
+        JsonNode leche = objectMapper.readTree(lines.get(0));
+        assertThat(leche.get("description").asText()).isEqualTo("Leche");
+        assertThat(leche.get("prices")).hasSize(2);
+        JsonNode pan = objectMapper.readTree(lines.get(1));
+        assertThat(pan.get("description").asText()).isEqualTo("Pan, integral");
+        assertThat(pan.get("prices")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("CSV has one line per price, and one for a product without prices")
+    void exportsCsv() throws Exception {
+        List<String> lines = export(ExportFormat.CSV);
+
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).startsWith("product_id,description,");
+        assertThat(lines.get(1)).contains(",Leche,A,").contains(",1.5,A,");
+        assertThat(lines.get(2)).contains(",Leche,A,").contains(",1.75,I,");
+        assertThat(lines.get(3)).contains(",\"Pan, integral\",A,").endsWith(",,,,,");
+    }
+
+    @Test
+    @DisplayName("the export sets the async timeout of its own request only")
+    void exportTimeoutIsPerRequest() throws Exception {
+        MockHttpServletRequest export = new MockHttpServletRequest();
+        export.setAsyncSupported(true);
+        AsyncTimeout.set(export, Duration.ofMinutes(10));
+        MockHttpServletRequest other = new MockHttpServletRequest();
+        other.setAsyncSupported(true);
+
+        assertThat(startAsync(export, 30_000L)).isEqualTo(Duration.ofMinutes(10).toMillis());
+        assertThat(startAsync(other, 30_000L)).isEqualTo(30_000L);
+    }
+
+    private List<String> export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        productService.exportProducts(out, format);
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        // only the products of this test: the ones committed by other tests share the database
+        List<String> own = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if ((i == 0 && format == ExportFormat.CSV) || productIds.stream().anyMatch(id -> isOf(line, id, format))) {
+                own.add(line);
+            }
+        }
+        return own;
+    }
+
+    private static boolean isOf(String line, Long productId, ExportFormat format) {
+        return line.startsWith(format == ExportFormat.CSV ? productId + "," : "{\"id\":" + productId + ",");
+    }
+
+    /**
+     * Start async processing like the MVC adapter does, with the default timeout and the interceptor.
+     */
+    private static long startAsync(MockHttpServletRequest request, long defaultTimeout) throws Exception {
+        StandardServletAsyncWebRequest asyncRequest = new StandardServletAsyncWebRequest(request, new MockHttpServletResponse());
+        asyncRequest.setTimeout(defaultTimeout);
+        new AsyncTimeout().beforeConcurrentHandling(asyncRequest, () -> null);
+        asyncRequest.startAsync();
+        return request.getAsyncContext().getTimeout();
+    }
+}
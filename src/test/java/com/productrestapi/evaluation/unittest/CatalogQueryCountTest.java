@@ -0,0 +1,251 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.productrestapi.evaluation.exceptions.UnknownFieldException;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.PriceFilter;
+import com.productrestapi.evaluation.model.request.PriceRequest;
+import com.productrestapi.evaluation.model.request.ProductFilter;
+import com.productrestapi.evaluation.model.response.MultiGetResult;
+import com.productrestapi.evaluation.repositories.PriceRepositoryCustom;
+import com.productrestapi.evaluation.repositories.ProductRepositoryCustom;
+import com.productrestapi.evaluation.services.PriceServiceImpl;
+import com.productrestapi.evaluation.services.ProductServiceImpl;
+import com.productrestapi.evaluation.utils.CursorUtils;
+import com.productrestapi.evaluation.utils.FieldsUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ServiceSliceTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class CatalogQueryCountTest {
+
+    private static final int PRODUCTS = 60;
+    private static final int PRICES_PER_PRODUCT = 3;
+
+    @Autowired
+    ProductServiceImpl productService;
+
+    @Autowired
+    PriceServiceImpl priceService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product()
+                    .setDescription("Product " + i)
+                    .setStatus("A")
+                    .setCreationDate(Instant.now());
+            entityManager.persist(product);
+            for (int j = 0; j < PRICES_PER_PRODUCT; j++) {
+                entityManager.persist(new Price()
+                        .setProduct(product)
+                        .setPrice(i + j)
+                        .setStatus("A")
+                        .setCreationDate(Instant.now()));
+            }
+        }
+        entityManager.flush();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("getAllProducts runs the same number of statements for any page size")
+    void productPageStatementCountIsConstant() {
+        long small = this.countStatements(() -> productService.getAllProducts(page(5)));
+        long large = this.countStatements(() -> productService.getAllProducts(page(50)));
+
+        assertThat(small).isEqualTo(large).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("getProductsAfter runs the same number of statements for any page size")
+    void productKeysetStatementCountIsConstant() {
+        long small = this.countStatements(() -> productService.getProductsAfter(0, 5).getContent());
+        long large = this.countStatements(() -> productService.getProductsAfter(0, 50).getContent());
+
+        assertThat(small).isEqualTo(large).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("following the next cursor walks every product once, in id order")
+    void keysetPagesCoverCatalogue() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Slice<Product> slice = productService.getProductsAfter(new ProductFilter(), CursorUtils.decode(cursor), 7);
+            slice.forEach(product -> seen.add(product.getId()));
+            cursor = CursorUtils.nextCursor(slice, Product::getId);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo((PRODUCTS + 6) / 7);
+        assertThat(seen).hasSize(PRODUCTS).doesNotHaveDuplicates().isSorted();
+
+        List<Long> prices = new ArrayList<>();
+        cursor = null;
+        do {
+            Slice<Price> slice = priceService.getPricesAfter(new PriceFilter().setStatus("A"), CursorUtils.decode(cursor), 50);
+            slice.forEach(price -> prices.add(price.getId()));
+            cursor = CursorUtils.nextCursor(slice, Price::getId);
+        } while (cursor != null);
+        assertThat(prices).hasSize(PRODUCTS * PRICES_PER_PRODUCT).doesNotHaveDuplicates().isSorted();
+    }
+
+    @Test
+    @DisplayName("getAllPrices runs the same number of statements for any page size")
+    void pricePageStatementCountIsConstant() {
+        long small = this.countStatements(() -> priceService.getAllPrices(page(5)));
+        long large = this.countStatements(() -> priceService.getAllPrices(page(150)));
+
+        assertThat(small).isEqualTo(large).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("filters narrow the listings in SQL and keep the statement count")
+    void filtersNarrowListings() {
+        entityManager.persist(new Product().setDescription("Product_x").setStatus("I").setCreationDate(Instant.now()));
+        entityManager.flush();
+
+        ProductFilter inactive = new ProductFilter().setStatus("I").setDescription("Product_");
+        assertThat(productService.getAllProducts(inactive, page(50)))
+                .extracting(Product::getDescription).containsExactly("Product_x");
+        assertThat(productService.getAllProducts(new ProductFilter().setDescription("Product 1"), page(50)))
+                .hasSize(11);
+
+        PriceFilter range = new PriceFilter().setMinAmount(10.0).setMaxAmount(11.0);
+        long statements = this.countStatements(() -> priceService.getAllPrices(range, page(50)));
+        assertThat(priceService.getAllPrices(range, page(50)))
+                .hasSize(6)
+                .allMatch(price -> price.getPrice() >= 10 && price.getPrice() <= 11);
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("multi-gets resolve every id with one query and keep the request order")
+    void multiGetsUseOneQuery() {
+        List<Long> productIds = productService.getAllProducts(page(50)).stream()
+                .map(Product::getId).collect(Collectors.toList());
+        List<Long> requested = new ArrayList<>(productIds);
+        Collections.reverse(requested);
+        requested.add(2, -1L);
+        requested.add(requested.get(0));
+
+        long statements = this.countStatements(() -> productService.getProducts(requested).getItems());
+        MultiGetResult<Product> products = productService.getProducts(requested);
+        assertThat(statements).isEqualTo(1);
+        assertThat(products.getItems()).extracting(Product::getId)
+                .containsExactlyElementsOf(productIds.stream().sorted(Comparator.reverseOrder()).collect(Collectors.toList()));
+        assertThat(products.getMissing()).containsExactly(-1L);
+
+        List<Long> priceIds = priceService.getAllPrices(page(150)).stream()
+                .map(Price::getId).collect(Collectors.toList());
+        priceIds.add(0, -2L);
+        assertThat(this.countStatements(() -> priceService.getPrices(priceIds).getItems())).isEqualTo(1);
+        MultiGetResult<Price> prices = priceService.getPrices(priceIds);
+        assertThat(prices.getItems()).extracting(Price::getId).containsExactlyElementsOf(priceIds.subList(1, priceIds.size()));
+        assertThat(prices.getMissing()).containsExactly(-2L);
+    }
+
+    @Test
+    @DisplayName("sparse fieldsets select the requested columns in one statement without loading entities")
+    void sparseFieldsLoadNoEntities() {
+        List<String> productFields = FieldsUtils.parse("description, status", ProductRepositoryCustom.FIELDS);
+        long statements = this.countStatements(() -> productService.getProductFields(new ProductFilter(), page(50), productFields));
+        assertThat(statements).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        List<Map<String, Object>> products = productService.getProductFields(new ProductFilter(), page(5), productFields);
+        assertThat(products).hasSize(5)
+                .allMatch(row -> row.keySet().equals(new LinkedHashSet<>(Arrays.asList("id", "description", "status"))));
+
+        List<String> priceFields = FieldsUtils.parse("productId,price", PriceRepositoryCustom.FIELDS);
+        Slice<Map<String, Object>> prices = priceService.getPriceFieldsAfter(new PriceFilter(), 0, 4, priceFields);
+        assertThat(this.countStatements(prices::getContent)).isZero();
+        assertThat(prices.hasNext()).isTrue();
+        assertThat(prices.getContent()).hasSize(4).allMatch(row -> row.get("productId") != null && row.size() == 3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        assertThatThrownBy(() -> FieldsUtils.parse("id,prices", ProductRepositoryCustom.FIELDS))
+                .isInstanceOf(UnknownFieldException.class);
+    }
+
+    @Test
+    @DisplayName("createPrice does not load the prices the product already has")
+    void createPriceDoesNotLoadExistingPrices() {
+        Product crowded = new Product().setDescription("Crowded").setStatus("A").setCreationDate(Instant.now());
+        entityManager.persist(crowded);
+        for (int i = 0; i < 100; i++) {
+            entityManager.persist(new Price().setProduct(crowded).setPrice(i + 1).setStatus("A"));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Price created = priceService.createPrice(
+                new PriceRequest().setProductId(crowded.getId()).setPrice(9.99).setStatus("A"));
+        entityManager.flush();
+
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(created.getId()).isNotNull();
+        assertThat(created.getProduct().getId()).isEqualTo(crowded.getId());
+    }
+
+    /**
+     * Run the read and serialize its result, so lazy associations walked by Jackson are counted too.
+     */
+    private long countStatements(Supplier<List<?>> read) {
+        entityManager.clear();
+        statistics.clear();
+        try {
+            List<?> result = read.get();
+            assertThat(result).isNotEmpty();
+            objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private PageRequest page(int size) {
+        return PageRequest.of(0, size, Sort.by("id").ascending());
+    }
+}
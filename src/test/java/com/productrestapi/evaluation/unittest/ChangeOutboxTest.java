@@ -0,0 +1,64 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.exceptions.ProductNotFoundException;
+import com.productrestapi.evaluation.model.ChangeEvent;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.PriceRequest;
+import com.productrestapi.evaluation.repositories.ChangeEventRepository;
+import com.productrestapi.evaluation.services.ChangeDispatcher;
+import com.productrestapi.evaluation.services.PriceServiceImpl;
+import com.productrestapi.evaluation.services.ProductServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ServiceSliceTest
+class ChangeOutboxTest {
+
+    @Autowired
+    ProductServiceImpl productService;
+
+    @Autowired
+    PriceServiceImpl priceService;
+
+    @Autowired
+    ChangeDispatcher changeDispatcher;
+
+    @Autowired
+    ChangeEventRepository changeEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        changeEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("committed changes are recorded with their final state and sequenced in commit order")
+    void recordsCommittedChanges() {
+        Product product = productService.createProduct(new Product().setDescription("Leche").setStatus("A"));
+        priceService.createPrice(new PriceRequest().setProductId(product.getId()).setPrice(9.99).setStatus("A"));
+        productService.updateProduct(product.getId(), new Product().setDescription("Leche Entera").setStatus("A"));
+        assertThatThrownBy(() -> priceService.createPrice(new PriceRequest().setProductId(-1L).setPrice(1).setStatus("A")))
+                .isInstanceOf(ProductNotFoundException.class);
+
+        changeDispatcher.dispatch();
+
+        List<ChangeEvent> events = changeEventRepository.findAll(Sort.by("sequence"));
+        assertThat(events).extracting(ChangeEvent::getOperation).containsExactly(
+                ChangeEvent.Operation.CREATED, ChangeEvent.Operation.CREATED, ChangeEvent.Operation.UPDATED);
+        assertThat(events).extracting(ChangeEvent::getEntityType).containsExactly(
+                ChangeEvent.EntityType.PRODUCT, ChangeEvent.EntityType.PRICE, ChangeEvent.EntityType.PRODUCT);
+        assertThat(events).allMatch(event -> event.getProductId() == product.getId());
+        assertThat(events.get(1).getSequence()).isEqualTo(events.get(0).getSequence() + 1);
+        assertThat(events.get(2).getSequence()).isEqualTo(events.get(1).getSequence() + 1);
+        // the price bumped the product version, and the update is serialized after the flush
+        assertThat(events.get(2).getPayload()).contains("\"description\":\"Leche Entera\"", "\"version\":2");
+    }
+}
@@ -0,0 +1,210 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.controllers.ChangeController;
+import com.productrestapi.evaluation.model.ChangeEvent;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.repositories.ChangeEventRepository;
+import com.productrestapi.evaluation.services.ChangeDispatcher;
+import com.productrestapi.evaluation.services.ProductServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@ServiceSliceTest(properties = "evaluation.changes.send-timeout=300ms")
+class ChangeStreamTest {
+
+    private static final String SLOW = "X-Slow-Client";
+
+    @Autowired
+    ProductServiceImpl productService;
+
+    @Autowired
+    ChangeDispatcher changeDispatcher;
+
+    @Autowired
+    ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final AtomicBoolean slowWrites = new AtomicBoolean();
+    private final CountDownLatch releaseSlowWrites = new CountDownLatch(1);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ChangeController(changeDispatcher, Duration.ofMinutes(1)))
+                .addFilter((request, response, chain) -> chain.doFilter(request,
+                        ((HttpServletRequest) request).getHeader(SLOW) != null
+                                ? new SlowResponse((HttpServletResponse) response) : response))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSlowWrites.countDown();
+        changeEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("a subscriber resuming with Last-Event-ID gets the changes it missed, then the new ones")
+    void resumesFromLastEventId() throws Exception {
+        for (String description : new String[]{"Leche", "Pan", "Arroz"}) {
+            productService.createProduct(new Product().setDescription(description).setStatus("A"));
+        }
+        changeDispatcher.dispatch();
+        List<ChangeEvent> missed = changeEventRepository.findAll(Sort.by("sequence"));
+        long first = missed.get(0).getSequence();
+
+        MvcResult resumed = mockMvc.perform(get("/api/v1/changes").header("Last-Event-ID", first)).andReturn();
+        MvcResult live = mockMvc.perform(get("/api/v1/changes")).andReturn();
+        assertThat(resumed.getRequest().isAsyncStarted()).isTrue();
+
+        changeDispatcher.dispatch();
+        awaitContent(resumed, "id:" + (first + 2));
+        productService.createProduct(new Product().setDescription("Azucar").setStatus("A"));
+        changeDispatcher.dispatch();
+        awaitContent(resumed, "id:" + (first + 3));
+        awaitContent(live, "id:" + (first + 3));
+
+        String stream = resumed.getResponse().getContentAsString();
+        assertThat(stream).contains(":subscribed after " + first)
+                .doesNotContain("id:" + first + "\n")
+                .contains("event:product.created");
+        assertThat(stream.indexOf("id:" + (first + 1))).isLessThan(stream.indexOf("id:" + (first + 2)));
+        assertThat(stream.indexOf("id:" + (first + 2))).isLessThan(stream.indexOf("id:" + (first + 3)));
+        assertThat(live.getResponse().getContentAsString())
+                .doesNotContain("id:" + (first + 2) + "\n")
+                .contains("\"description\":\"Azucar\"");
+    }
+
+    @Test
+    @DisplayName("a subscriber stuck in a write does not delay the others and is dropped after the send timeout")
+    void slowSubscriberIsDropped() throws Exception {
+        MvcResult slow = mockMvc.perform(get("/api/v1/changes").header(SLOW, "true")).andReturn();
+        MvcResult fast = mockMvc.perform(get("/api/v1/changes")).andReturn();
+        slowWrites.set(true);
+
+        productService.createProduct(new Product().setDescription("Leche").setStatus("A"));
+        changeDispatcher.dispatch();
+        awaitContent(fast, "\"description\":\"Leche\"");
+
+        Thread.sleep(400);
+        // past the send timeout: the slow subscriber is dropped, the fast one still served
+        changeDispatcher.dispatch();
+        productService.createProduct(new Product().setDescription("Pan").setStatus("A"));
+        changeDispatcher.dispatch();
+        awaitContent(fast, "\"description\":\"Pan\"");
+
+        releaseSlowWrites.countDown();
+        productService.createProduct(new Product().setDescription("Arroz").setStatus("A"));
+        changeDispatcher.dispatch();
+        awaitContent(fast, "\"description\":\"Arroz\"");
+        assertThat(slow.getResponse().getContentAsString()).doesNotContain("Pan", "Arroz");
+    }
+
+    @Test
+    @DisplayName("a node that does not dispatch streams the events numbered by the one that does")
+    void followerStreamsDispatchedEvents() throws Exception {
+        ChangeDispatcher follower = new ChangeDispatcher(changeEventRepository, objectMapper, transactionManager,
+                500, Duration.ofDays(7), false, 1, Duration.ofSeconds(10));
+        try {
+            MvcResult result = MockMvcBuilders.standaloneSetup(new ChangeController(follower, Duration.ofMinutes(1)))
+                    .build().perform(get("/api/v1/changes")).andReturn();
+            productService.createProduct(new Product().setDescription("Leche").setStatus("A"));
+
+            follower.dispatch();
+            assertThat(changeEventRepository.findAll()).extracting(ChangeEvent::getSequence).containsOnlyNulls();
+
+            changeDispatcher.dispatch();
+            follower.dispatch();
+            long sequence = changeEventRepository.findAll().get(0).getSequence();
+            awaitContent(result, "id:" + sequence);
+            assertThat(result.getResponse().getContentAsString()).contains("\"description\":\"Leche\"");
+        } finally {
+            follower.destroy();
+        }
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.getResponse().getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(result.getResponse().getContentAsString()).contains(expected);
+    }
+
+    /**
+     * A client that stops reading: once slow writes are on, every write blocks until released.
+     */
+    private class SlowResponse extends HttpServletResponseWrapper {
+
+        SlowResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            ServletOutputStream out = super.getOutputStream();
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    this.await();
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    this.await();
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+
+                private void await() {
+                    if (slowWrites.get()) {
+                        try {
+                            releaseSlowWrites.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            };
+        }
+    }
+}
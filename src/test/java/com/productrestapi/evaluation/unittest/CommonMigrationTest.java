@@ -0,0 +1,59 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.PriceHistory;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.repositories.PriceHistoryRepository;
+import com.productrestapi.evaluation.repositories.PriceRepository;
+import com.productrestapi.evaluation.repositories.ProductRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * The portable migrations of the jdbc profile, applied by Flyway to H2 in PostgreSQL mode and validated by
+ * Hibernate against the entities. H2 stands in for PostgreSQL, which the build has no server for.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:common;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.flyway.locations=classpath:db/migration/common"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CommonMigrationTest {
+
+    @Autowired
+    Flyway flyway;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    PriceRepository priceRepository;
+
+    @Autowired
+    PriceHistoryRepository priceHistoryRepository;
+
+    @Test
+    @DisplayName("the jdbc profile migrations build the schema the entities map")
+    void migratesAndMaps() {
+        assertThat(flyway.info().applied()).extracting(migration -> migration.getScript())
+                .containsExactly("V1__catalogue.sql", "V2__price_history_open_versions.sql");
+
+        Product product = productRepository.save(new Product().setDescription("Leche").setStatus("A"));
+        Price price = priceRepository.save(new Price().setProduct(product).setPrice(9.99).setStatus("A"));
+        Instant from = Instant.now();
+        priceHistoryRepository.saveAndFlush(new PriceHistory().setPriceId(price.getId()).setProductId(product.getId())
+                .setPrice(9.99).setStatus("A").setValidFrom(from));
+
+        assertThat(priceHistoryRepository.findValidAt(product.getId(), from.plusSeconds(1)))
+                .extracting(PriceHistory::getPrice, PriceHistory::getValidTo).containsExactly(tuple(9.99, null));
+    }
+}
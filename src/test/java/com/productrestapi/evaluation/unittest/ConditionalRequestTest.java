@@ -0,0 +1,159 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.config.RequestCoalescer;
+import com.productrestapi.evaluation.config.RequestExecutor;
+import com.productrestapi.evaluation.config.ResponseCache;
+import com.productrestapi.evaluation.controllers.PriceController;
+import com.productrestapi.evaluation.controllers.ProductController;
+import com.productrestapi.evaluation.exceptions.CustomGlobalExceptionHandler;
+import com.productrestapi.evaluation.exceptions.PreconditionFailedException;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.ProductFilter;
+import com.productrestapi.evaluation.services.PriceService;
+import com.productrestapi.evaluation.services.ProductService;
+import com.productrestapi.evaluation.utils.ETagUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Conditional GETs and updates through the controllers, with the services mocked.
+ */
+class ConditionalRequestTest {
+
+    private static final Instant MODIFIED = Instant.parse("2026-01-15T10:00:00Z");
+
+    private final ProductService productService = mock(ProductService.class);
+    private final PriceService priceService = mock(PriceService.class);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private MockMvc mockMvc;
+    private Product product;
+    private Price price;
+
+    @BeforeEach
+    void setUp() {
+        RequestExecutor executor = RequestExecutor.inline();
+        RequestCoalescer coalescer = new RequestCoalescer(executor,
+                new HttpMessageConverters(false, Collections.singletonList(new MappingJackson2HttpMessageConverter(objectMapper))),
+                new SimpleMeterRegistry(), (cacheName, id) -> 0L, ResponseCache.disabled(), true);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new ProductController(productService, objectMapper, executor, coalescer, 100, Duration.ofMinutes(1)),
+                        new PriceController(priceService, objectMapper, executor, coalescer, 100))
+                .setControllerAdvice(new CustomGlobalExceptionHandler())
+                .build();
+
+        product = new Product().setId(1L).setDescription("Leche").setStatus("A").setVersion(3L)
+                .setCreationDate(MODIFIED.minus(1, ChronoUnit.DAYS)).setModificationDate(MODIFIED);
+        price = new Price().setId(7L).setPrice(9.99).setStatus("A").setVersion(2L).setProduct(product)
+                .setCreationDate(MODIFIED.minus(1, ChronoUnit.DAYS));
+        when(productService.getProduct(1L)).thenReturn(product);
+        when(productService.getAllProducts(any(ProductFilter.class), any())).thenReturn(Collections.singletonList(product));
+        when(priceService.getPrice(7L)).thenReturn(price);
+    }
+
+    @Test
+    @DisplayName("GET with the current tag in If-None-Match is answered 304 without a body")
+    void notModifiedByETag() throws Exception {
+        MockHttpServletResponse first = perform(get("/api/v1/product/1"));
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"3\"");
+
+        MockHttpServletResponse again = perform(get("/api/v1/product/1").header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""));
+        assertThat(again.getStatus()).isEqualTo(304);
+        assertThat(again.getContentLength()).isZero();
+
+        MockHttpServletResponse changed = perform(get("/api/v1/product/1").header(HttpHeaders.IF_NONE_MATCH, "W/\"2\""));
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getContentAsString()).contains("\"description\":\"Leche\"");
+
+        MockHttpServletResponse priceAgain = perform(get("/api/v1/price/7").header(HttpHeaders.IF_NONE_MATCH, ETagUtils.of(price)));
+        assertThat(priceAgain.getStatus()).isEqualTo(304);
+
+        String listTag = perform(get("/api/v1/product")).getHeader(HttpHeaders.ETAG);
+        assertThat(perform(get("/api/v1/product").header(HttpHeaders.IF_NONE_MATCH, listTag)).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    @DisplayName("GET with If-Modified-Since at or after the last change is answered 304")
+    void notModifiedSince() throws Exception {
+        assertThat(perform(get("/api/v1/product/1").header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED))).getStatus())
+                .isEqualTo(304);
+        assertThat(perform(get("/api/v1/product/1").header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(MODIFIED.minusSeconds(60)))).getStatus())
+                .isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("an update with a stale or foreign If-Match is rejected with 412")
+    void preconditionFailed() throws Exception {
+        when(productService.updateProduct(eq(1L), argThat(update -> Long.valueOf(2L).equals(update.getVersion()))))
+                .thenThrow(new PreconditionFailedException("2"));
+        when(priceService.updatePrice(eq(7L), argThat(update -> Long.valueOf(1L).equals(update.getVersion()))))
+                .thenThrow(new PreconditionFailedException("1"));
+        when(productService.updateProduct(anyLong(), argThat(update -> Long.valueOf(3L).equals(update.getVersion()))))
+                .thenReturn(product);
+
+        MockHttpServletResponse stale = perform(update("/api/v1/product/1", "W/\"2\"", product));
+        assertThat(stale.getStatus()).isEqualTo(412);
+        assertThat(stale.getContentAsString()).contains("If-Match does not match");
+
+        assertThat(perform(update("/api/v1/product/1", "not-a-tag", product)).getStatus()).isEqualTo(412);
+        assertThat(perform(update("/api/v1/price/7", "W/\"1.3\"", price)).getStatus()).isEqualTo(412);
+
+        MockHttpServletResponse current = perform(update("/api/v1/product/1", "W/\"3\"", product));
+        assertThat(current.getStatus()).isEqualTo(200);
+        assertThat(current.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"3\"");
+    }
+
+    private MockHttpServletRequestBuilder update(String uri, String ifMatch, Object body) throws Exception {
+        return post(uri).header(HttpHeaders.IF_MATCH, ifMatch)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body));
+    }
+
+    /**
+     * Perform the request, following the async dispatch of the handlers returning a future.
+     */
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result.getResponse();
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atOffset(ZoneOffset.UTC));
+    }
+}
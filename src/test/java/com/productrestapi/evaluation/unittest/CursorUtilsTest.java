@@ -0,0 +1,53 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.exceptions.InvalidCursorException;
+import com.productrestapi.evaluation.utils.CursorUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorUtilsTest {
+
+    @Test
+    @DisplayName("a cursor is opaque and decodes to the last id it was made from")
+    void roundTrip() {
+        String cursor = CursorUtils.encode(42L);
+
+        assertThat(cursor).doesNotContain("42").doesNotContain("=");
+        assertThat(CursorUtils.decode(cursor)).isEqualTo(42L);
+        assertThat(CursorUtils.decode(CursorUtils.encode(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("no cursor starts from the beginning, a forged or broken one is rejected")
+    void decodeRejectsInvalidCursors() {
+        assertThat(CursorUtils.decode(null)).isZero();
+        assertThat(CursorUtils.decode("")).isZero();
+
+        String wrongPrefix = Base64.getUrlEncoder().encodeToString("offset:10".getBytes(StandardCharsets.UTF_8));
+        String notANumber = Base64.getUrlEncoder().encodeToString("id:ten".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> CursorUtils.decode(wrongPrefix)).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> CursorUtils.decode(notANumber)).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> CursorUtils.decode("not base64!")).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("the next cursor points after the last row, the last page has none")
+    void nextCursor() {
+        PageRequest page = PageRequest.of(0, 3);
+
+        String next = CursorUtils.nextCursor(new SliceImpl<>(Arrays.asList(4L, 7L, 9L), page, true), Long::longValue);
+        assertThat(CursorUtils.decode(next)).isEqualTo(9L);
+        assertThat(CursorUtils.nextCursor(new SliceImpl<>(Arrays.asList(11L, 12L), page, false), Long::longValue)).isNull();
+        assertThat(CursorUtils.nextCursor(new SliceImpl<>(Collections.<Long>emptyList(), page, true), Long::longValue)).isNull();
+    }
+}
@@ -0,0 +1,34 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.exceptions.PreconditionFailedException;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.utils.ETagUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ETagUtilsTest {
+
+    @Test
+    @DisplayName("the tag of a price can be sent back as If-Match")
+    void priceTagRoundTrip() {
+        Price price = new Price().setId(1L).setVersion(4L).setProduct(new Product().setId(2).setVersion(9L));
+
+        assertThat(ETagUtils.of(price)).isEqualTo("W/\"4.9\"");
+        assertThat(ETagUtils.expectedVersion(ETagUtils.of(price))).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("If-Match is optional, * matches anything and anything else must be one of our tags")
+    void expectedVersion() {
+        assertThat(ETagUtils.expectedVersion(null)).isNull();
+        assertThat(ETagUtils.expectedVersion("*")).isNull();
+        assertThat(ETagUtils.expectedVersion("\"3\"")).isEqualTo(3L);
+        assertThat(ETagUtils.expectedVersion("W/\"3\"")).isEqualTo(3L);
+        assertThatThrownBy(() -> ETagUtils.expectedVersion("3")).isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ETagUtils.expectedVersion("\"abc\"")).isInstanceOf(PreconditionFailedException.class);
+    }
+}
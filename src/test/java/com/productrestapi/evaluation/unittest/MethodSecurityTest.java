@@ -0,0 +1,106 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.security.MethodSecurityConfig;
+import com.productrestapi.evaluation.security.RequiredAuthorities;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.method.MethodSecurityMetadataSource;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.access.prepost.PreInvocationAttribute;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MethodSecurityTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"precomputed", "expression"})
+    @DisplayName("both modes grant and deny the same calls")
+    void sameDecisions(String mode) {
+        try (AnnotationConfigApplicationContext context = context(mode)) {
+            Secured secured = context.getBean(Secured.class);
+
+            authenticate("ROLE_PRODUCT_PRICING");
+            assertThat(secured.pricing(1)).isEqualTo(2);
+            assertThat(secured.anyRole()).isTrue();
+            assertThatThrownBy(secured::managers).isInstanceOf(AccessDeniedException.class);
+            assertThat(secured.expression(1)).isTrue();
+            assertThatThrownBy(() -> secured.expression(-1)).isInstanceOf(AccessDeniedException.class);
+
+            authenticate("ROLE_PRODUCT_MANAGERS");
+            assertThat(secured.managers()).isTrue();
+            assertThat(secured.anyRole()).isTrue();
+            assertThatThrownBy(() -> secured.pricing(1)).isInstanceOf(AccessDeniedException.class);
+
+            authenticate("ROLE_PRODUCT_CREATORS");
+            assertThatThrownBy(secured::anyRole).isInstanceOf(AccessDeniedException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("simple authority checks are precomputed, other expressions are still evaluated")
+    void precomputesSimpleChecks() throws Exception {
+        try (AnnotationConfigApplicationContext context = context("precomputed")) {
+            MethodSecurityMetadataSource source = context.getBean("methodSecurityMetadataSource", MethodSecurityMetadataSource.class);
+
+            Collection<ConfigAttribute> pricing = source.getAttributes(Secured.class.getMethod("pricing", int.class), Secured.class);
+            Collection<ConfigAttribute> expression = source.getAttributes(Secured.class.getMethod("expression", int.class), Secured.class);
+
+            assertThat(pricing).hasSize(1).first().isInstanceOf(RequiredAuthorities.class);
+            assertThat(expression).hasSize(1).first().isInstanceOf(PreInvocationAttribute.class);
+        }
+    }
+
+    private static AnnotationConfigApplicationContext context(String mode) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                Collections.singletonMap("evaluation.security.method-security", mode)));
+        context.register(MethodSecurityConfig.class, Secured.class);
+        context.refresh();
+        return context;
+    }
+
+    private static void authenticate(String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", null, authority));
+    }
+
+    static class Secured {
+
+        @PreAuthorize("hasAuthority('ROLE_PRODUCT_PRICING')")
+        public int pricing(int value) {
+            return value + 1;
+        }
+
+        @PreAuthorize("hasRole('PRODUCT_MANAGERS')")
+        public boolean managers() {
+            return true;
+        }
+
+        @PreAuthorize("hasAnyRole('PRODUCT_PRICING', 'ROLE_PRODUCT_MANAGERS')")
+        public boolean anyRole() {
+            return true;
+        }
+
+        @PreAuthorize("hasAuthority('ROLE_PRODUCT_PRICING') and #value > 0")
+        public boolean expression(int value) {
+            return true;
+        }
+    }
+}
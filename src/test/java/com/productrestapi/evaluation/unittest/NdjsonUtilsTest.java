@@ -0,0 +1,45 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.exceptions.BulkRequestTooLargeException;
+import com.productrestapi.evaluation.model.request.PriceBulkRequest;
+import com.productrestapi.evaluation.utils.NdjsonUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NdjsonUtilsTest {
+
+    private static final String ITEM = "{\"productId\":1,\"price\":9.99,\"status\":\"A\"}\n";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    @DisplayName("every line of the body is one item")
+    void readsEveryLine() {
+        assertThat(NdjsonUtils.read(body(ITEM + ITEM + ITEM), PriceBulkRequest.class, objectMapper, 3))
+                .hasSize(3)
+                .allMatch(item -> item.getProductId() == 1L && item.getPrice() == 9.99);
+    }
+
+    @Test
+    @DisplayName("reading stops at the first item over the limit, before the rest of the body")
+    void stopsAtLimit() {
+        // the line after the limit is not even parsed
+        MockHttpInputMessage oversized = body(ITEM + ITEM + ITEM + "{not json");
+
+        assertThatThrownBy(() -> NdjsonUtils.read(oversized, PriceBulkRequest.class, objectMapper, 2))
+                .isInstanceOf(BulkRequestTooLargeException.class)
+                .hasMessageContaining("more than 2 items");
+    }
+
+    private static MockHttpInputMessage body(String ndjson) {
+        return new MockHttpInputMessage(ndjson.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,94 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.model.ChangeEvent;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.PriceHistory;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.PriceBulkRequest;
+import com.productrestapi.evaluation.model.response.BulkItemResult;
+import com.productrestapi.evaluation.repositories.PriceRepository;
+import com.productrestapi.evaluation.repositories.ProductRepository;
+import com.productrestapi.evaluation.services.PriceServiceImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ServiceSliceTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "evaluation.bulk.chunk-size=40"
+})
+class PriceBulkWriteTest {
+
+    private static final int ITEMS = 100;
+
+    @Autowired
+    PriceServiceImpl priceService;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    PriceRepository priceRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @DisplayName("savePrices creates and updates in batches and reports every item")
+    void savePricesInBatches() {
+        Product product = productRepository.save(new Product()
+                .setDescription("Leche Evaporada Carnation")
+                .setStatus("A")
+                .setCreationDate(Instant.now()));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<PriceBulkRequest> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new PriceBulkRequest().setProductId(product.getId()).setPrice(1 + i).setStatus("A"));
+        }
+        items.add(new PriceBulkRequest().setProductId(product.getId()).setPrice(-1).setStatus("A"));
+        items.add(new PriceBulkRequest().setProductId(-1L).setPrice(9.99).setStatus("A"));
+
+        statistics.clear();
+        List<BulkItemResult> created = priceService.savePrices(items);
+
+        assertThat(created).hasSize(ITEMS + 2);
+        assertThat(created.subList(0, ITEMS))
+                .allMatch(result -> result.getStatus() == BulkItemResult.Status.CREATED && result.getId() != null);
+        assertThat(created.get(ITEMS).getStatus()).isEqualTo(BulkItemResult.Status.FAILED);
+        assertThat(created.get(ITEMS + 1).getStatus()).isEqualTo(BulkItemResult.Status.FAILED);
+        assertThat(statistics.getEntityStatistics(Price.class.getName()).getInsertCount()).isEqualTo(ITEMS);
+        assertThat(statistics.getEntityStatistics(ChangeEvent.class.getName()).getInsertCount()).isEqualTo(ITEMS);
+        assertThat(statistics.getEntityStatistics(PriceHistory.class.getName()).getInsertCount()).isEqualTo(ITEMS);
+        // three tables written per item, all in batches
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(ITEMS / 3);
+
+        List<PriceBulkRequest> updates = created.subList(0, ITEMS).stream()
+                .map(result -> new PriceBulkRequest()
+                        .setId(result.getId())
+                        .setProductId(product.getId())
+                        .setPrice(5.55)
+                        .setStatus("I"))
+                .collect(Collectors.toList());
+
+        statistics.clear();
+        List<BulkItemResult> updated = priceService.savePrices(updates);
+
+        assertThat(updated).allMatch(result -> result.getStatus() == BulkItemResult.Status.UPDATED);
+        assertThat(statistics.getEntityStatistics(Price.class.getName()).getUpdateCount()).isEqualTo(ITEMS);
+        assertThat(statistics.getEntityStatistics(PriceHistory.class.getName()).getInsertCount()).isEqualTo(ITEMS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(ITEMS / 3);
+        assertThat(priceRepository.findAll()).allMatch(price -> price.getPrice() == 5.55);
+    }
+}
@@ -0,0 +1,92 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.PriceHistory;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.model.request.PriceRequest;
+import com.productrestapi.evaluation.repositories.ChangeEventRepository;
+import com.productrestapi.evaluation.repositories.PriceHistoryRepository;
+import com.productrestapi.evaluation.services.PriceServiceImpl;
+import com.productrestapi.evaluation.services.ProductServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ServiceSliceTest
+class PriceHistoryTest {
+
+    @Autowired
+    ProductServiceImpl productService;
+
+    @Autowired
+    PriceServiceImpl priceService;
+
+    @Autowired
+    PriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        priceHistoryRepository.deleteAll();
+        changeEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("every committed price change closes the previous version and is readable as of any instant")
+    void pricesAsOf() throws InterruptedException {
+        Product product = productService.createProduct(new Product().setDescription("Leche").setStatus("A"));
+        Instant beforeCreate = tick();
+        Price price = priceService.createPrice(new PriceRequest().setProductId(product.getId()).setPrice(9.99).setStatus("A"));
+        Instant afterCreate = tick();
+        priceService.updatePrice(price.getId(), new Price().setPrice(11.5).setStatus("A"));
+        Instant afterUpdate = tick();
+        priceService.deletePrice(price.getId());
+        Instant afterDelete = tick();
+
+        assertThat(priceService.getPricesAsOf(product.getId(), beforeCreate)).isEmpty();
+        assertThat(priceService.getPricesAsOf(product.getId(), afterCreate))
+                .extracting(PriceHistory::getPrice).containsExactly(9.99);
+        assertThat(priceService.getPricesAsOf(product.getId(), afterUpdate))
+                .extracting(PriceHistory::getPrice).containsExactly(11.5);
+        assertThat(priceService.getPricesAsOf(product.getId(), afterDelete)).isEmpty();
+        // append-only: both versions are kept, the last one closed by the deletion
+        assertThat(priceHistoryRepository.findAll()).hasSize(2).allMatch(version -> version.getValidTo() != null);
+        productService.deleteProduct(product.getId());
+    }
+
+    @Test
+    @DisplayName("the as-of lookup seeks on the end of the versions, open ones stored at the sentinel")
+    void seeksOnValidTo() {
+        Product product = productService.createProduct(new Product().setDescription("Pan").setStatus("A"));
+        Price price = priceService.createPrice(new PriceRequest().setProductId(product.getId()).setPrice(1.2).setStatus("A"));
+
+        assertThat(priceService.getPricesAsOf(product.getId(), Instant.now()))
+                .extracting(PriceHistory::getValidTo).containsExactly((Instant) null);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from price_history where price_id = ? and valid_to is null",
+                Long.class, price.getId())).isZero();
+        String plan = jdbcTemplate.queryForObject("explain select * from price_history"
+                + " where product_id = 1 and valid_to > current_timestamp and valid_from <= current_timestamp", String.class);
+        assertThat(plan).contains("IDX_PRICE_HISTORY_PRODUCT").contains("VALID_TO >");
+
+        priceService.deletePrice(price.getId());
+        productService.deleteProduct(product.getId());
+    }
+
+    private static Instant tick() throws InterruptedException {
+        Thread.sleep(5);
+        Instant now = Instant.now();
+        Thread.sleep(5);
+        return now;
+    }
+}
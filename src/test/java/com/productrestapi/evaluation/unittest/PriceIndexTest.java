@@ -0,0 +1,141 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.exceptions.NoActivePriceException;
+import com.productrestapi.evaluation.model.Price;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.repositories.PriceRepository;
+import com.productrestapi.evaluation.services.PriceIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PriceIndexTest {
+
+    private final PriceRepository priceRepository = mock(PriceRepository.class);
+
+    private final PriceIndex priceIndex = new PriceIndex(priceRepository, mock(PlatformTransactionManager.class), true);
+
+    @BeforeEach
+    void setUp() {
+        when(priceRepository.streamIndexRows()).thenReturn(Stream.of(
+                new Object[]{1L, 10L, 5.0, "A"},
+                new Object[]{2L, 10L, 7.5, "A"},
+                new Object[]{3L, 20L, 7.5, "I"},
+                new Object[]{4L, 30L, 12.0, "A"},
+                new Object[]{5L, 30L, 3.0, "A"}));
+        priceIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("the current price is the active price with the highest id")
+    void currentPrice() {
+        assertThat(priceIndex.size()).isEqualTo(5);
+        assertThat(priceIndex.getCurrentPrice(10).getPriceId()).isEqualTo(2);
+        assertThat(priceIndex.getCurrentPrice(30).getPrice()).isEqualTo(3.0);
+        assertThatThrownBy(() -> priceIndex.getCurrentPrice(20)).isInstanceOf(NoActivePriceException.class);
+    }
+
+    @Test
+    @DisplayName("range lookups are inclusive, filter by status and return each product once")
+    void productsPricedBetween() {
+        assertThat(priceIndex.getProductIdsPricedBetween(3.0, 7.5, "A")).containsExactly(10, 30);
+        assertThat(priceIndex.getProductIdsPricedBetween(7.5, 7.5, "I")).containsExactly(20);
+        assertThat(priceIndex.getProductIdsPricedBetween(12.5, 100, "A")).isEmpty();
+        assertThat(priceIndex.getProductIdsPricedBetween(0, 100, "X")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("writes move prices between products and drop products without active prices")
+    void writes() {
+        priceIndex.put(price(2, 20, 9.0, "A"));
+        priceIndex.remove(price(1, 10, 5.0, "A"));
+        priceIndex.put(price(6, 40, 1.0, "A"));
+
+        assertThatThrownBy(() -> priceIndex.getCurrentPrice(10)).isInstanceOf(NoActivePriceException.class);
+        assertThat(priceIndex.getCurrentPrice(20).getPriceId()).isEqualTo(2);
+        assertThat(priceIndex.getCurrentPrice(40).getPrice()).isEqualTo(1.0);
+        assertThat(priceIndex.getProductIdsPricedBetween(0, 100, "A")).containsExactly(20, 30, 40);
+        assertThat(priceIndex.size()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("writes inside a transaction are applied after commit only")
+    void writesInTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            priceIndex.put(price(7, 50, 2.0, "A"));
+            assertThatThrownBy(() -> priceIndex.getCurrentPrice(50)).isInstanceOf(NoActivePriceException.class);
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertThat(synchronizations).hasSize(1);
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(priceIndex.getCurrentPrice(50).getPriceId()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("writes spread over many chunks give the same lookups as a rebuild")
+    void writesAcrossChunks() {
+        Random random = new Random(42);
+        Map<Long, Price> prices = new HashMap<>();
+        Stream.of(price(1, 10, 5.0, "A"), price(2, 10, 7.5, "A"), price(3, 20, 7.5, "I"), price(4, 30, 12.0, "A"),
+                price(5, 30, 3.0, "A")).forEach(price -> prices.put(price.getId(), price));
+        for (int i = 0; i < 20_000; i++) {
+            long id = 100 + random.nextInt(5_000);
+            if (random.nextInt(4) == 0) {
+                priceIndex.remove(price(id, 0, 0, null));
+                prices.remove(id);
+            } else {
+                Price price = price(id, 100 + random.nextInt(1_000), random.nextInt(200) / 2.0, random.nextInt(3) == 0 ? "I" : "A");
+                priceIndex.put(price);
+                prices.put(id, price);
+            }
+        }
+        int size = priceIndex.size();
+        long[] pricedBetween = priceIndex.getProductIdsPricedBetween(10, 60, "A");
+        long[] currentPrices = currentPriceIds();
+
+        when(priceRepository.streamIndexRows()).thenReturn(prices.values().stream()
+                .map(price -> new Object[]{price.getId(), price.getProduct().getId(), price.getPrice(), price.getStatus()}));
+        priceIndex.rebuild();
+
+        assertThat(size).isEqualTo(prices.size()).isEqualTo(priceIndex.size());
+        assertThat(pricedBetween).isNotEmpty().containsExactly(priceIndex.getProductIdsPricedBetween(10, 60, "A"));
+        assertThat(currentPrices).containsExactly(currentPriceIds());
+    }
+
+    /**
+     * The current price id of the products of {@link #writesAcrossChunks()}, 0 for those without one.
+     */
+    private long[] currentPriceIds() {
+        long[] ids = new long[1_100];
+        for (int productId = 0; productId < ids.length; productId++) {
+            try {
+                ids[productId] = priceIndex.getCurrentPrice(productId).getPriceId();
+            } catch (NoActivePriceException e) {
+                ids[productId] = 0;
+            }
+        }
+        return ids;
+    }
+
+    private Price price(long id, long productId, double amount, String status) {
+        return new Price().setId(id).setProduct(new Product().setId(productId)).setPrice(amount).setStatus(status);
+    }
+}
@@ -0,0 +1,96 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productrestapi.evaluation.config.RequestCoalescer;
+import com.productrestapi.evaluation.config.RequestExecutor;
+import com.productrestapi.evaluation.config.ResponseCache;
+import com.productrestapi.evaluation.controllers.PriceController;
+import com.productrestapi.evaluation.controllers.ProductController;
+import com.productrestapi.evaluation.exceptions.CustomGlobalExceptionHandler;
+import com.productrestapi.evaluation.model.request.ProductFilter;
+import com.productrestapi.evaluation.services.PriceService;
+import com.productrestapi.evaluation.services.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The list endpoints choose their handler by query parameter; the combinations no handler supports are rejected.
+ */
+class QueryParametersTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final PriceService priceService = mock(PriceService.class);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        RequestExecutor executor = RequestExecutor.inline();
+        RequestCoalescer coalescer = new RequestCoalescer(executor,
+                new HttpMessageConverters(false, Collections.singletonList(new MappingJackson2HttpMessageConverter(objectMapper))),
+                new SimpleMeterRegistry(), (cacheName, id) -> 0L, ResponseCache.disabled(), true);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new ProductController(productService, objectMapper, executor, coalescer, 100, Duration.ofMinutes(1)),
+                        new PriceController(priceService, objectMapper, executor, coalescer, 100))
+                .setControllerAdvice(new CustomGlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("fields with ids, or with asOf, is answered 400 instead of failing as an ambiguous mapping")
+    void rejectsFieldsWithIdsOrAsOf() throws Exception {
+        MockHttpServletResponse products = perform(get("/api/v1/product").param("fields", "description").param("ids", "1,2"));
+        assertThat(products.getStatus()).isEqualTo(400);
+        assertThat(products.getContentAsString()).contains("Parameters fields and ids cannot be combined");
+
+        MockHttpServletResponse prices = perform(get("/api/v1/price").param("fields", "price")
+                .param("productId", "1").param("asOf", "2026-01-15T10:00:00Z"));
+        assertThat(prices.getStatus()).isEqualTo(400);
+        assertThat(prices.getContentAsString()).contains("Parameters fields and asOf cannot be combined");
+
+        verifyNoInteractions(productService, priceService);
+    }
+
+    @Test
+    @DisplayName("fields alone still selects the fields of the listed rows")
+    void fieldsAlone() throws Exception {
+        when(productService.getProductFields(any(ProductFilter.class), any(), anyList()))
+                .thenReturn(Collections.singletonList(Collections.singletonMap("description", "Leche")));
+
+        MockHttpServletResponse response = perform(get("/api/v1/product").param("fields", "description"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("[{\"description\":\"Leche\"}]");
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result.getResponse();
+    }
+}
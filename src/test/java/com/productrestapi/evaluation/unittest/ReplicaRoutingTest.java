@@ -0,0 +1,110 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.config.ReplicaDataSourceConfiguration;
+import com.productrestapi.evaluation.config.RequestCoalescer;
+import com.productrestapi.evaluation.config.RequestExecutor;
+import com.productrestapi.evaluation.config.ResponseCache;
+import com.productrestapi.evaluation.config.TransactionRoutingDataSource;
+import com.productrestapi.evaluation.model.Product;
+import com.productrestapi.evaluation.services.ProductServiceImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two independent in-memory databases stand in for the primary and the replica, so every row shows where it
+ * was written and where it was read from.
+ */
+@ServiceSliceTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "evaluation.datasource.replica.enabled=true",
+        "evaluation.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "evaluation.datasource.replica.hikari.pool-name=catalogue-replica",
+        "evaluation.datasource.replica.hikari.maximum-pool-size=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReplicaDataSourceConfiguration.class)
+class ReplicaRoutingTest {
+
+    @Autowired
+    ProductServiceImpl productService;
+
+    @Autowired
+    HikariDataSource primaryDataSource;
+
+    @Autowired
+    HikariDataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() {
+        // a real replica gets the schema from the primary
+        Flyway.configure().dataSource(replicaDataSource).locations("classpath:db/migration/h2").load().migrate();
+    }
+
+    @Test
+    @DisplayName("writes and reads marked for the primary go to the primary pool, the other read-only reads to the replica pool")
+    void routesByTransaction() {
+        Product created = productService.createProduct(new Product().setDescription("Leche").setStatus("A"));
+        new JdbcTemplate(replicaDataSource).update(
+                "insert into product (id, description, product_status, creation_date, version) values (?, ?, ?, ?, 0)",
+                created.getId(), "Leche (replica)", "A", Timestamp.from(Instant.now()));
+
+        assertThat(productService.getProduct(created.getId()).getDescription()).isEqualTo("Leche");
+        assertThat(productService.getAllProducts(PageRequest.of(0, 10)))
+                .filteredOn(product -> product.getId() == created.getId())
+                .extracting(Product::getDescription).containsExactly("Leche (replica)");
+        assertThat(TransactionRoutingDataSource.readFromPrimary(() -> productService.getAllProducts(PageRequest.of(0, 10))))
+                .filteredOn(product -> product.getId() == created.getId())
+                .extracting(Product::getDescription).containsExactly("Leche");
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(
+                "select description from product where id = ?", String.class, created.getId())).isEqualTo("Leche");
+        assertThat(replicaDataSource.getPoolName()).isEqualTo("catalogue-replica");
+        assertThat(replicaDataSource.getMaximumPoolSize()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("pages kept in the response cache are loaded from the primary, the others from the replica")
+    void cachedPagesReadFromPrimary() throws Exception {
+        Product created = productService.createProduct(new Product().setDescription("Pan").setStatus("A"));
+        new JdbcTemplate(replicaDataSource).update(
+                "insert into product (id, description, product_status, creation_date, version) values (?, ?, ?, ?, 0)",
+                created.getId(), "Pan (replica)", "A", Timestamp.from(Instant.now()));
+
+        assertThat(loadPage(ResponseCache.of("maximumWeight=1048576", new SimpleMeterRegistry()), created.getId()))
+                .isEqualTo("[\"Pan\"]");
+        assertThat(loadPage(ResponseCache.disabled(), created.getId())).isEqualTo("[\"Pan (replica)\"]");
+    }
+
+    private String loadPage(ResponseCache responseCache, long productId) throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(RequestExecutor.inline(),
+                new HttpMessageConverters(false, Collections.singletonList(new MappingJackson2HttpMessageConverter())),
+                new SimpleMeterRegistry(), (cacheName, id) -> 0L, responseCache, true);
+        Object body = coalescer.submit("products", new MockHttpServletRequest("GET", "/api/v1/product"),
+                () -> ResponseEntity.ok(productService.getAllProducts(PageRequest.of(0, 100)).stream()
+                        .filter(product -> product.getId() == productId)
+                        .map(Product::getDescription)
+                        .collect(Collectors.toList())))
+                .get(5, TimeUnit.SECONDS).getBody();
+        return new String((byte[]) body);
+    }
+}
@@ -0,0 +1,164 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.config.RequestCoalescer;
+import com.productrestapi.evaluation.config.RequestExecutor;
+import com.productrestapi.evaluation.config.ResponseCache;
+import com.productrestapi.evaluation.exceptions.ProductNotFoundException;
+import com.productrestapi.evaluation.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTest {
+
+    private static final int FOLLOWERS = 10;
+
+    private final RequestExecutor executor = RequestExecutor.bounded(2, 2, 10);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer coalescer = new RequestCoalescer(executor,
+            new HttpMessageConverters(false, Collections.singletonList(new MappingJackson2HttpMessageConverter())),
+            meterRegistry, (cacheName, id) -> 0L, ResponseCache.disabled(), true);
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    @DisplayName("concurrent identical requests share one load and one serialized body")
+    void sharesOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        List<CompletableFuture<ResponseEntity<?>>> responses = new ArrayList<>();
+        for (int i = 0; i <= FOLLOWERS; i++) {
+            responses.add(coalescer.submit("product", request("/api/v1/product/1"), () -> {
+                loads.incrementAndGet();
+                await(release);
+                return ResponseEntity.ok().eTag("W/\"1\"").body(new Product().setId(1L).setDescription("Leche"));
+            }));
+        }
+        release.countDown();
+
+        ResponseEntity<?> first = responses.get(0).get(5, TimeUnit.SECONDS);
+        assertThat(new String((byte[]) first.getBody())).contains("\"description\":\"Leche\"");
+        assertThat(first.getHeaders().getETag()).isEqualTo("W/\"1\"");
+        assertThat(first.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        for (CompletableFuture<ResponseEntity<?>> response : responses) {
+            assertThat(response.get(5, TimeUnit.SECONDS).getBody()).isSameAs(first.getBody());
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(count("loaded")).isEqualTo(1);
+        assertThat(count("coalesced")).isEqualTo(FOLLOWERS);
+    }
+
+    @Test
+    @DisplayName("a failed load fails every request that joined it, and the next request loads again")
+    void sharesFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> leader = coalescer.submit("product", request("/api/v1/product/9"), () -> {
+            await(release);
+            throw new ProductNotFoundException(9L);
+        });
+        CompletableFuture<ResponseEntity<?>> follower = coalescer.submit("product", request("/api/v1/product/9"),
+                () -> ResponseEntity.ok().build());
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(ProductNotFoundException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(ProductNotFoundException.class);
+
+        ResponseEntity<?> retried = coalescer.submit("product", request("/api/v1/product/9"),
+                () -> ResponseEntity.notFound().build()).get(5, TimeUnit.SECONDS);
+        assertThat(retried.getStatusCodeValue()).isEqualTo(404);
+        assertThat(count("loaded")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("different query strings are different requests")
+    void keysByQueryString() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<ResponseEntity<?>> first = coalescer.submit("products", request("/api/v1/product", "size=10"), () -> {
+            loads.incrementAndGet();
+            await(release);
+            return ResponseEntity.ok(new ArrayList<Product>());
+        });
+        CompletableFuture<ResponseEntity<?>> second = coalescer.submit("products", request("/api/v1/product", "size=20"), () -> {
+            loads.incrementAndGet();
+            return ResponseEntity.ok(new ArrayList<Product>());
+        });
+        release.countDown();
+
+        assertThat(new String((byte[]) first.get(5, TimeUnit.SECONDS).getBody())).isEqualTo("[]");
+        assertThat(new String((byte[]) second.get(5, TimeUnit.SECONDS).getBody())).isEqualTo("[]");
+        assertThat(loads).hasValue(2);
+        assertThat(count("coalesced")).isZero();
+    }
+
+    @Test
+    @DisplayName("serialized responses are kept until the catalogue generation moves")
+    void cachesUntilNextWrite() throws Exception {
+        AtomicLong generation = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        RequestCoalescer cached = new RequestCoalescer(executor,
+                new HttpMessageConverters(false, Collections.singletonList(new MappingJackson2HttpMessageConverter())),
+                meterRegistry, (cacheName, id) -> generation.get(), ResponseCache.of("maximumWeight=1048576", meterRegistry), true);
+        Supplier<ResponseEntity<?>> loader = () -> ResponseEntity.ok(new Product().setId(loads.incrementAndGet()));
+
+        Object first = cached.submit("product", request("/api/v1/product/1"), loader).get(5, TimeUnit.SECONDS).getBody();
+        Object second = cached.submit("product", request("/api/v1/product/1"), loader).get(5, TimeUnit.SECONDS).getBody();
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+
+        generation.incrementAndGet();
+        Object afterWrite = cached.submit("product", request("/api/v1/product/1"), loader).get(5, TimeUnit.SECONDS).getBody();
+        assertThat(new String((byte[]) afterWrite)).contains("\"id\":2");
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "responses").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    private double count(String result) {
+        return meterRegistry.find("evaluation.coalescing.requests").tag("result", result).counters().stream()
+                .mapToDouble(counter -> counter.count()).sum();
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return request(uri, null);
+    }
+
+    private static MockHttpServletRequest request(String uri, String queryString) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setQueryString(queryString);
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
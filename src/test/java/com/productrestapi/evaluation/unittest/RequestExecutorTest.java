@@ -0,0 +1,63 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.config.RequestExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestExecutorTest {
+
+    private final RequestExecutor executor = RequestExecutor.bounded(1, 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("work beyond the pool and its queue is rejected instead of piling up")
+    void rejectsWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = executor.submit(() -> await(release));
+        CompletableFuture<Boolean> queued = executor.submit(() -> await(release));
+
+        assertThatThrownBy(() -> executor.submit(() -> true)).isInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("the work runs with the authentication of the caller")
+    void propagatesAuthentication() throws Exception {
+        Authentication caller = new TestingAuthenticationToken("roque", null, "ROLE_PRODUCT_PRICING");
+        SecurityContextHolder.getContext().setAuthentication(caller);
+
+        CompletableFuture<Authentication> seen = executor.submit(
+                () -> SecurityContextHolder.getContext().getAuthentication());
+
+        assertThat(seen.get(5, TimeUnit.SECONDS)).isSameAs(caller);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
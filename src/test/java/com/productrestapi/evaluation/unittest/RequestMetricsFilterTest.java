@@ -0,0 +1,43 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.metrics.RequestMetrics;
+import com.productrestapi.evaluation.metrics.RequestMetricsFilter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestMetricsFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RequestMetricsFilter filter = new RequestMetricsFilter(meterRegistry);
+
+    @Test
+    @DisplayName("counters of a request are published under its handler pattern")
+    void recordsCountersPerEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/product/7");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/product/{id}");
+            RequestMetrics.statementPrepared();
+            RequestMetrics.statementPrepared();
+            RequestMetrics.entityLoaded();
+            RequestMetrics.jsonBytesWritten(128);
+        });
+        RequestMetrics.statementPrepared();
+
+        assertThat(summary(RequestMetricsFilter.STATEMENTS).totalAmount()).isEqualTo(2);
+        assertThat(summary(RequestMetricsFilter.ENTITIES_LOADED).totalAmount()).isEqualTo(1);
+        assertThat(summary(RequestMetricsFilter.JSON_BYTES).totalAmount()).isEqualTo(128);
+    }
+
+    private DistributionSummary summary(String name) {
+        return meterRegistry.get(name).tag("uri", "/api/v1/product/{id}").tag("method", "GET").summary();
+    }
+}
@@ -0,0 +1,40 @@
+package com.productrestapi.evaluation.unittest;
+
+import com.productrestapi.evaluation.config.CacheConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JPA slice with the services, their caches, Jackson and validation on an embedded database. The tests run
+ * outside a transaction, so the services commit as they do in a request; a test class that wants its changes
+ * rolled back declares its own {@code @Transactional}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest(includeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.productrestapi\\.evaluation\\.services\\..*"))
+@Import(CacheConfiguration.class)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@interface ServiceSliceTest {
+
+    /**
+     * Properties added to the environment of the test context, as in {@link DataJpaTest#properties()}.
+     */
+    @AliasFor(annotation = DataJpaTest.class)
+    String[] properties() default {};
+}